@@ -3,13 +3,16 @@ package ru.practicum.shareit.booking.controller;
 import lombok.RequiredArgsConstructor;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDetailedDto;
 import ru.practicum.shareit.booking.dto.BookingPostDto;
 import ru.practicum.shareit.booking.dto.BookingPostResponseDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.item.validation.Create;
+import ru.practicum.shareit.pagination.PageCursor;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 import java.util.List;
@@ -23,6 +26,8 @@ public class BookingController {
     public static final String DEFAULT_SIZE_VALUE = "20";
     public static final String DEFAULT_STATE_VALUE = "ALL";
     public static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    private static final int MAX_SIZE = 100;
 
     private final BookingService bookingService;
 
@@ -32,6 +37,12 @@ public class BookingController {
         return bookingService.createBooking(dto, userId);
     }
 
+    @PostMapping("/batch")
+    public List<BookingBatchResultDto> createBookings(@RequestBody List<BookingPostDto> dtos,
+                                                      @RequestHeader(USER_ID_HEADER) Integer userId) {
+        return bookingService.createBookings(dtos, userId);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingResponseDto patchBooking(@PathVariable Integer bookingId,
                                            @RequestParam Boolean approved,
@@ -49,20 +60,60 @@ public class BookingController {
     @GetMapping
     public List<BookingDetailedDto> findAllBookings(@RequestParam(defaultValue = DEFAULT_STATE_VALUE) String state,
                                                     @RequestHeader(USER_ID_HEADER) Integer userId,
+                                                    @RequestParam(required = false) Integer itemId,
                                                     @RequestParam(defaultValue = DEFAULT_FROM_VALUE)
                                                     @PositiveOrZero int from,
                                                     @RequestParam(defaultValue = DEFAULT_SIZE_VALUE)
-                                                    @Positive int size) {
-        return bookingService.findAllByBooker(state, userId, from, size);
+                                                    @Positive int size,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "false") boolean withTotal,
+                                                    HttpServletResponse response) {
+        int pageSize = Math.min(size, MAX_SIZE);
+        List<BookingDetailedDto> bookings = toPage(bookingService
+                .findAllByBooker(state, userId, itemId, from, decodeCursor(cursor), pageSize + 1), pageSize, response);
+        if (withTotal) {
+            long total = bookingService.countAllByBooker(state, userId, itemId);
+            response.setHeader(TOTAL_COUNT_HEADER, String.valueOf(total));
+        }
+        return bookings;
     }
 
     @GetMapping("/owner")
     public List<BookingDetailedDto> findAll(@RequestParam(defaultValue = DEFAULT_STATE_VALUE) String state,
                                             @RequestHeader(USER_ID_HEADER) Integer userId,
+                                            @RequestParam(required = false) Integer itemId,
                                             @RequestParam(defaultValue = DEFAULT_FROM_VALUE)
                                             @PositiveOrZero int from,
                                             @RequestParam(defaultValue = DEFAULT_SIZE_VALUE)
-                                            @Positive int size) {
-        return bookingService.findAllByItemOwner(state, userId, from, size);
+                                            @Positive int size,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "false") boolean withTotal,
+                                            HttpServletResponse response) {
+        int pageSize = Math.min(size, MAX_SIZE);
+        List<BookingDetailedDto> bookings = toPage(bookingService
+                .findAllByItemOwner(state, userId, itemId, from, decodeCursor(cursor), pageSize + 1), pageSize, response);
+        if (withTotal) {
+            long total = bookingService.countAllByItemOwner(state, userId, itemId);
+            response.setHeader(TOTAL_COUNT_HEADER, String.valueOf(total));
+        }
+        return bookings;
+    }
+
+    private PageCursor decodeCursor(String cursor) {
+        return cursor == null ? null : PageCursor.decode(cursor);
+    }
+
+    /**
+     * Сервис запрашивается на одну строку больше страницы (не больше {@value #MAX_SIZE}): курсор отдаётся,
+     * только если эта строка есть, поэтому полная последняя страница не обещает пустую следующую.
+     */
+    private List<BookingDetailedDto> toPage(List<BookingDetailedDto> rows, int size, HttpServletResponse response) {
+        if (rows.size() <= size) {
+            return rows;
+        }
+        List<BookingDetailedDto> bookings = rows.subList(0, size);
+        BookingDetailedDto last = bookings.get(size - 1);
+        response.setHeader(PageCursor.NEXT_CURSOR_HEADER, PageCursor.of(last.getStart(), last.getId()).encode());
+        return bookings;
     }
 }
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Value;
+
+/**
+ * Арендатор в ответах по бронированиям.
+ */
+@Value
+public class BookerDto {
+    Integer id;
+    String name;
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Результат одной записи пакетного бронирования: созданная бронь либо причина отказа.
+ * {@code index} указывает на позицию записи во входном списке.
+ */
+@Value
+@Builder
+public class BookingBatchResultDto {
+    int index;
+    BookingPostResponseDto booking;
+    String error;
+}
@@ -1,10 +1,9 @@
 package ru.practicum.shareit.booking.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
+import lombok.Value;
 import ru.practicum.shareit.booking.model.BookingStatus;
-import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.model.User;
 
 import javax.validation.constraints.NotNull;
 import java.time.LocalDateTime;
@@ -12,16 +11,26 @@ import java.time.LocalDateTime;
 /**
  * @author Min Danil 19.10.2023
  */
-@Data
+@Value
 @Builder
+@AllArgsConstructor
 public class BookingDetailedDto {
-    private Integer id;
+    Integer id;
     @NotNull
-    private LocalDateTime start;
+    LocalDateTime start;
     @NotNull
-    private LocalDateTime end;
-    private BookingStatus status;
-    private User booker;
-    private Item item;
-    private String name;
+    LocalDateTime end;
+    BookingStatus status;
+    BookerDto booker;
+    BookingItemDto item;
+    String name;
+
+    /**
+     * Конструктор для JPQL-проекции: поля вещи и арендатора выбираются плоским списком.
+     */
+    public BookingDetailedDto(Integer id, LocalDateTime start, LocalDateTime end, BookingStatus status,
+                              Integer bookerId, String bookerName, Integer itemId, String itemName) {
+        this(id, start, end, status, new BookerDto(bookerId, bookerName), new BookingItemDto(itemId, itemName),
+                itemName);
+    }
 }
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Период бронирования без остальных полей, для построения таймлайна вещи.
+ */
+@Value
+public class BookingIntervalDto {
+    Integer id;
+    Integer itemId;
+    LocalDateTime start;
+    LocalDateTime end;
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Value;
+
+/**
+ * Вещь в ответах по бронированиям: только поля, которые нужны клиенту.
+ */
+@Value
+public class BookingItemDto {
+    Integer id;
+    String name;
+}
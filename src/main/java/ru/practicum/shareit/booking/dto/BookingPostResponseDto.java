@@ -1,11 +1,9 @@
 package ru.practicum.shareit.booking.dto;
 
 import lombok.Builder;
-import lombok.Data;
+import lombok.Value;
 import ru.practicum.shareit.booking.model.BookingStatus;
-import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.validation.Create;
-import ru.practicum.shareit.user.model.User;
 
 import javax.validation.constraints.FutureOrPresent;
 import java.time.LocalDateTime;
@@ -13,16 +11,15 @@ import java.time.LocalDateTime;
 /**
  * @author Min Danil 12.10.2023
  */
-@Data
+@Value
 @Builder
 public class BookingPostResponseDto {
-    private Integer id;
-    private Item item;
+    Integer id;
+    BookingItemDto item;
     @FutureOrPresent(groups = {Create.class})
-    private LocalDateTime start;
+    LocalDateTime start;
     @FutureOrPresent(groups = {Create.class})
-    private LocalDateTime end;
-    private BookingStatus status;
-    private User booker;
-
+    LocalDateTime end;
+    BookingStatus status;
+    BookerDto booker;
 }
@@ -1,24 +1,22 @@
 package ru.practicum.shareit.booking.dto;
 
 import lombok.Builder;
-import lombok.Data;
+import lombok.Value;
 import ru.practicum.shareit.booking.model.BookingStatus;
-import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
 
 /**
  * @author Min Danil 12.10.2023
  */
-@Data
+@Value
 @Builder
 public class BookingResponseDto {
-    private Integer id;
-    private LocalDateTime start;
-    private LocalDateTime end;
-    private BookingStatus status;
-    private User booker;
-    private Item item;
-    private String name;
+    Integer id;
+    LocalDateTime start;
+    LocalDateTime end;
+    BookingStatus status;
+    BookerDto booker;
+    BookingItemDto item;
+    String name;
 }
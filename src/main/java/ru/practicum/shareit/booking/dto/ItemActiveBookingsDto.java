@@ -0,0 +1,17 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Число действующих бронирований вещи и окончание ближайшего из них.
+ */
+@Data
+@AllArgsConstructor
+public class ItemActiveBookingsDto {
+    private Integer itemId;
+    private Long count;
+    private LocalDateTime earliestEnd;
+}
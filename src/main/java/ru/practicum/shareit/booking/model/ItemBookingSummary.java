@@ -0,0 +1,48 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.time.LocalDateTime;
+
+/**
+ * Денормализованная сводка бронирований вещи: последнее начавшееся бронирование,
+ * ближайшее неотклонённое будущее и число действующих (APPROVED и WAITING, ещё не закончившихся).
+ * {@code refreshAt} - момент, когда сводка устареет: начало следующего бронирования
+ * или окончание ближайшего из действующих.
+ */
+@Data
+@Builder
+@Entity(name = "item_booking_summary")
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemBookingSummary {
+    @Id
+    @Column(name = "item_id")
+    private Integer itemId;
+    @Column(name = "last_booking_id")
+    private Integer lastBookingId;
+    @Column(name = "last_booker_id")
+    private Integer lastBookerId;
+    @Column(name = "last_start")
+    private LocalDateTime lastStart;
+    @Column(name = "last_end")
+    private LocalDateTime lastEnd;
+    @Column(name = "next_booking_id")
+    private Integer nextBookingId;
+    @Column(name = "next_booker_id")
+    private Integer nextBookerId;
+    @Column(name = "next_start")
+    private LocalDateTime nextStart;
+    @Column(name = "next_end")
+    private LocalDateTime nextEnd;
+    @Column(name = "active_bookings", nullable = false)
+    private int activeBookings;
+    @Column(name = "refresh_at")
+    private LocalDateTime refreshAt;
+}
@@ -0,0 +1,40 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Singular;
+import lombok.ToString;
+import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.pagination.PageCursor;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Параметры выборки бронирований для {@link BookingRepositoryCustom}. Все состояния из {@code states}
+ * должны выполняться одновременно, например {@code WAITING} и {@code FUTURE}.
+ * Если задан {@code cursor}, {@code offset} игнорируется.
+ */
+@Getter
+@Builder
+@ToString
+public class BookingQuery {
+    public enum Role {
+        BOOKER,
+        OWNER
+    }
+
+    @NonNull
+    private final Role role;
+    @NonNull
+    private final Integer userId;
+    @Singular
+    private final Set<State> states;
+    private final Integer itemId;
+    @NonNull
+    private final LocalDateTime now;
+    private final PageCursor cursor;
+    private final long offset;
+    private final int size;
+}
@@ -1,52 +1,88 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.dto.BookingDetailedDto;
+import ru.practicum.shareit.booking.dto.BookingIntervalDto;
+import ru.practicum.shareit.booking.dto.ItemActiveBookingsDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 /**
  * @author Min Danil 12.10.2023
  */
 
-public interface BookingRepository extends JpaRepository<Booking, Integer> {
-
-    Page<Booking> findByBookerIdAndEndIsBefore(Integer bookerId, LocalDateTime now, Pageable pageable);
-
-    Page<Booking> findByBookerIdAndStartIsAfter(Integer bookerId, LocalDateTime now, Pageable pageable);
-
-    Page<Booking> findByBookerIdAndStatus(Integer bookerId, BookingStatus status, Pageable pageable);
-
-    Page<Booking> findByBookerId(Integer bookerId, Pageable pageable);
-
-    Page<Booking> findBookingByItemOwnerAndStatus(Integer bookerId, BookingStatus status, Pageable pageable);
-
-    Page<Booking> findBookingByItemOwnerAndEndIsBefore(Integer bookerId, LocalDateTime now, Pageable pageable);
-
-    Page<Booking> findBookingByItemOwnerAndStartIsAfter(Integer bookerId, LocalDateTime now, Pageable pageable);
-
-    Page<Booking> findBookingByItemOwner(Integer bookerId, Pageable pageable);
-
-    List<Booking> findBookingByItemIdAndStartBefore(Integer itemId, LocalDateTime end, Sort sort);
-
-    List<Booking> findBookingByItemIdAndStartAfter(Integer itemId, LocalDateTime start, Sort sort);
+public interface BookingRepository extends JpaRepository<Booking, Integer>, BookingRepositoryCustom {
 
     @Query("select b from bookings b " +
-            "where b.booker.id = ?1 " +
-            "and b.start < ?2 " +
-            "and b.end > ?2 ")
-    Page<Booking> findByBookerIdCurrent(Integer userId, LocalDateTime now, Pageable pageable);
+            "join fetch b.item " +
+            "join fetch b.booker " +
+            "where b.item.id in ?1 " +
+            "and (b.start = (select max(l.start) from bookings l " +
+            "                where l.item.id = b.item.id " +
+            "                and l.start < ?2) " +
+            "  or (b.status <> ?3 " +
+            "      and b.start = (select min(n.start) from bookings n " +
+            "                     where n.item.id = b.item.id " +
+            "                     and n.start > ?2 " +
+            "                     and n.status <> ?3))) " +
+            "order by b.id")
+    List<Booking> findLastAndNextBookings(List<Integer> itemIds, LocalDateTime now, BookingStatus excludedStatus);
+
+    @Query("select new ru.practicum.shareit.booking.dto.ItemActiveBookingsDto(b.item.id, count(b), min(b.end)) " +
+            "from bookings b " +
+            "where b.item.id in ?1 " +
+            "and b.status in ?2 " +
+            "and b.end > ?3 " +
+            "group by b.item.id")
+    List<ItemActiveBookingsDto> countActiveBookings(List<Integer> itemIds, List<BookingStatus> statuses,
+                                                    LocalDateTime now);
+
+    @Query("select new ru.practicum.shareit.booking.dto.BookingIntervalDto(b.id, b.item.id, b.start, b.end) " +
+            "from bookings b " +
+            "where b.item.id in ?1 " +
+            "and b.status in ?2 " +
+            "and b.end > ?3 " +
+            "order by b.item.id, b.start")
+    List<BookingIntervalDto> findActiveIntervals(Collection<Integer> itemIds, List<BookingStatus> statuses,
+                                                 LocalDateTime after);
+
+    @Query("select case when count(b) > 0 then true else false end " +
+            "from bookings b " +
+            "where b.item.id = ?1 " +
+            "and b.id <> ?2 " +
+            "and b.status in ?3 " +
+            "and b.start < ?5 " +
+            "and b.end > ?4")
+    boolean existsOverlapping(Integer itemId, Integer excludedBookingId, List<BookingStatus> statuses,
+                              LocalDateTime start, LocalDateTime end);
 
     @Query("select b from bookings b " +
-            "where b.item.owner = ?1 " +
-            "and b.start < ?2 " +
-            "and b.end > ?2 ")
-    Page<Booking> findBookingsByItemOwnerCurrent(Integer userId, LocalDateTime now, Pageable pageable);
+            "join fetch b.item " +
+            "join fetch b.booker " +
+            "where b.id = ?1")
+    Optional<Booking> findWithItemAndBookerById(Integer bookingId);
+
+    @Query("select new ru.practicum.shareit.booking.dto.BookingDetailedDto(" +
+            "b.id, b.start, b.end, b.status, u.id, u.name, i.id, i.name) " +
+            "from bookings b " +
+            "join b.item i " +
+            "join b.booker u " +
+            "where b.id = ?1 " +
+            "and (u.id = ?2 or i.owner = ?2)")
+    Optional<BookingDetailedDto> findDetailedById(Integer bookingId, Integer userId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update bookings b set b.status = ?3 " +
+            "where b.id = ?1 " +
+            "and b.status = ?4 " +
+            "and b.item.id in (select i.id from items i where i.owner = ?2)")
+    int updateStatus(Integer bookingId, Integer ownerId, BookingStatus status, BookingStatus expectedStatus);
 
     @Query("select b from bookings b " +
             " where b.item.id = ?1 " +
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.dto.BookingDetailedDto;
+
+import java.util.List;
+
+/**
+ * Выборки бронирований по {@link BookingQuery} в порядке (start desc, id desc).
+ * Поля вещи и арендатора выбираются тем же запросом сразу в DTO, без загрузки сущностей.
+ */
+public interface BookingRepositoryCustom {
+
+    List<BookingDetailedDto> findDetailed(BookingQuery query);
+
+    long countMatching(BookingQuery query);
+}
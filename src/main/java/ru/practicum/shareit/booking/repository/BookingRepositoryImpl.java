@@ -0,0 +1,113 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.dto.BookingDetailedDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.From;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BookingRepositoryImpl implements BookingRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<BookingDetailedDto> findDetailed(BookingQuery query) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookingDetailedDto> criteria = cb.createQuery(BookingDetailedDto.class);
+        Root<Booking> booking = criteria.from(Booking.class);
+        Join<Booking, Item> item = booking.join("item");
+        Join<Booking, User> booker = booking.join("booker");
+        Path<LocalDateTime> start = booking.get("start");
+        Path<Integer> id = booking.get("id");
+
+        List<Predicate> predicates = filter(cb, booking, item, booker, query);
+        PageCursor cursor = query.getCursor();
+        if (cursor != null) {
+            predicates.add(cb.or(
+                    cb.lessThan(start, cursor.getTime()),
+                    cb.and(cb.equal(start, cursor.getTime()), cb.lessThan(id, cursor.getId()))));
+        }
+
+        criteria.select(cb.construct(BookingDetailedDto.class,
+                        id, start, booking.get("end"), booking.get("status"),
+                        booker.get("id"), booker.get("name"), item.get("id"), item.get("name")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(start), cb.desc(id));
+        return entityManager.createQuery(criteria)
+                .setFirstResult(cursor == null ? (int) query.getOffset() : 0)
+                .setMaxResults(query.getSize())
+                .getResultList();
+    }
+
+    @Override
+    public long countMatching(BookingQuery query) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> criteria = cb.createQuery(Long.class);
+        Root<Booking> booking = criteria.from(Booking.class);
+        Join<Booking, Item> item = booking.join("item");
+        Join<Booking, User> booker = booking.join("booker");
+
+        List<Predicate> predicates = filter(cb, booking, item, booker, query);
+        criteria.select(cb.count(booking))
+                .where(predicates.toArray(new Predicate[0]));
+        return entityManager.createQuery(criteria).getSingleResult();
+    }
+
+    private List<Predicate> filter(CriteriaBuilder cb, Root<Booking> booking, From<Booking, Item> item,
+                                   From<Booking, User> booker, BookingQuery query) {
+        Path<LocalDateTime> start = booking.get("start");
+        Path<LocalDateTime> end = booking.get("end");
+        LocalDateTime now = query.getNow();
+
+        List<Predicate> predicates = new ArrayList<>();
+        switch (query.getRole()) {
+            case BOOKER:
+                predicates.add(cb.equal(booker.get("id"), query.getUserId()));
+                break;
+            case OWNER:
+                predicates.add(cb.equal(item.get("owner"), query.getUserId()));
+                break;
+        }
+        if (query.getItemId() != null) {
+            predicates.add(cb.equal(item.get("id"), query.getItemId()));
+        }
+        for (State state : query.getStates()) {
+            switch (state) {
+                case CURRENT:
+                    predicates.add(cb.lessThan(start, now));
+                    predicates.add(cb.greaterThan(end, now));
+                    break;
+                case PAST:
+                    predicates.add(cb.lessThan(end, now));
+                    break;
+                case FUTURE:
+                    predicates.add(cb.greaterThan(start, now));
+                    break;
+                case WAITING:
+                    predicates.add(cb.equal(booking.get("status"), BookingStatus.WAITING));
+                    break;
+                case REJECTED:
+                    predicates.add(cb.equal(booking.get("status"), BookingStatus.REJECTED));
+                    break;
+                case ALL:
+                    break;
+            }
+        }
+        return predicates;
+    }
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ItemBookingSummaryRepository extends JpaRepository<ItemBookingSummary, Integer> {
+
+    @Query("select s.itemId from item_booking_summary s " +
+            "where s.refreshAt <= ?1 " +
+            "order by s.refreshAt")
+    List<Integer> findDueItemIds(LocalDateTime now, Pageable pageable);
+
+    @Query("select distinct b.item.id from bookings b " +
+            "where not exists (select s from item_booking_summary s where s.itemId = b.item.id)")
+    List<Integer> findItemIdsWithoutSummary(Pageable pageable);
+}
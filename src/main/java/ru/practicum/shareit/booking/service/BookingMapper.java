@@ -3,6 +3,7 @@ package ru.practicum.shareit.booking.service;
 import ru.practicum.shareit.booking.dto.*;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
@@ -26,21 +27,21 @@ public class BookingMapper {
     public static BookingPostResponseDto toPostResponseDto(Booking booking, Item item) {
         return BookingPostResponseDto.builder()
                 .id(booking.getId())
-                .item(item)
+                .item(toBookingItemDto(item))
                 .start(booking.getStart())
                 .end(booking.getEnd())
                 .status(booking.getStatus())
-                .booker(booking.getBooker())
+                .booker(toBookerDto(booking.getBooker()))
                 .build();
     }
 
     public static BookingResponseDto toResponseDto(Booking booking, User booker, Item item) {
         return BookingResponseDto.builder()
                 .name(item.getName())
-                .item(item)
+                .item(toBookingItemDto(item))
                 .start(booking.getStart())
                 .end(booking.getEnd())
-                .booker(booker)
+                .booker(toBookerDto(booker))
                 .status(booking.getStatus())
                 .id(booking.getId())
                 .build();
@@ -53,8 +54,8 @@ public class BookingMapper {
                 .end(booking.getEnd())
                 .status(booking.getStatus())
                 .name(booking.getItem().getName())
-                .item(booking.getItem())
-                .booker(booking.getBooker())
+                .item(toBookingItemDto(booking.getItem()))
+                .booker(toBookerDto(booking.getBooker()))
                 .build();
     }
 
@@ -68,7 +69,37 @@ public class BookingMapper {
                 .build();
     }
 
+    public static BookingInItemDto lastBookingInItemDto(ItemBookingSummary summary) {
+        if (summary == null || summary.getLastBookingId() == null) return null;
+        return BookingInItemDto.builder()
+                .id(summary.getLastBookingId())
+                .bookerId(summary.getLastBookerId())
+                .start(summary.getLastStart())
+                .end(summary.getLastEnd())
+                .build();
+    }
+
+    public static BookingInItemDto nextBookingInItemDto(ItemBookingSummary summary) {
+        if (summary == null || summary.getNextBookingId() == null) return null;
+        return BookingInItemDto.builder()
+                .id(summary.getNextBookingId())
+                .bookerId(summary.getNextBookerId())
+                .start(summary.getNextStart())
+                .end(summary.getNextEnd())
+                .build();
+    }
+
     public static List<BookingDetailedDto> toListDetailedDto(List<Booking> bookings) {
         return bookings.stream().map(BookingMapper::toDetailedDto).collect(Collectors.toList());
     }
+
+    private static BookingItemDto toBookingItemDto(Item item) {
+        if (item == null) return null;
+        return new BookingItemDto(item.getId(), item.getName());
+    }
+
+    private static BookerDto toBookerDto(User booker) {
+        if (booker == null) return null;
+        return new BookerDto(booker.getId(), booker.getName());
+    }
 }
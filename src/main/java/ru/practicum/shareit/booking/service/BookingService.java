@@ -1,11 +1,12 @@
 package ru.practicum.shareit.booking.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDetailedDto;
+import ru.practicum.shareit.booking.dto.BookingIntervalDto;
 import ru.practicum.shareit.booking.dto.BookingPostDto;
 import ru.practicum.shareit.booking.dto.BookingPostResponseDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
@@ -13,16 +14,25 @@ import ru.practicum.shareit.booking.exception.InvalidBookingException;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.booking.repository.BookingQuery;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemCache;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static ru.practicum.shareit.booking.model.BookingStatus.REJECTED;
 import static ru.practicum.shareit.booking.model.BookingStatus.WAITING;
@@ -36,28 +46,44 @@ public class BookingService {
     public static final String BOOKING_INVALID_MESSAGE = "Недопустимые значения времени бронирования: ";
     public static final String INVALID_BUCKING = "Нельзя забронировать свою же вещь";
     public static final String UNAVAILABLE_BOOKING_MESSAGE = "В данный момент невозможно забронировать item: ";
+    public static final String OVERLAPPING_BOOKING_MESSAGE = "Вещь уже забронирована на этот период, item: ";
+    public static final String BOOKING_NOT_FOUND_MESSAGE = "Бронирование не найдено, bookingId: ";
+    public static final String ALREADY_DECIDED_MESSAGE = "Бронирование уже рассмотрено, статус: ";
     private static final String NOT_FOUND_USER = "Не найден пользователь с id = ";
     private static final String NOT_FOUND_ITEM = "Не найден item с id = ";
+    public static final int MAX_BATCH_SIZE = 500;
+    public static final String INVALID_BATCH_SIZE_MESSAGE = "Размер пакета бронирований должен быть от 1 до " +
+            MAX_BATCH_SIZE + ": ";
     private final UserRepository userRepository;
-    private final ItemRepository itemRepository;
+    private final ItemCache itemCache;
     private final BookingRepository bookingRepository;
-    public static final Sort SORT = Sort.by("start").descending();
+    private final ItemBookingSummaryService summaryService;
+    private final ItemBookingLocks itemLocks;
+    private final BookingTimeline timeline;
+    private final UserExistenceCache userExistence;
+    private static final String STATE_SEPARATOR = ",";
 
     @Autowired
-    public BookingService(UserRepository userRepository, ItemRepository itemRepository, BookingRepository bookingRepository) {
+    public BookingService(UserRepository userRepository, ItemCache itemCache, BookingRepository bookingRepository,
+                          ItemBookingSummaryService summaryService, ItemBookingLocks itemLocks,
+                          BookingTimeline timeline, UserExistenceCache userExistence) {
         this.userRepository = userRepository;
-        this.itemRepository = itemRepository;
+        this.itemCache = itemCache;
         this.bookingRepository = bookingRepository;
+        this.summaryService = summaryService;
+        this.itemLocks = itemLocks;
+        this.timeline = timeline;
+        this.userExistence = userExistence;
     }
 
-
+    @Transactional
     public BookingPostResponseDto createBooking(BookingPostDto dto, Integer userId) {
         if (!isStartBeforeEnd(dto)) {
             throw new InvalidBookingException(BOOKING_INVALID_MESSAGE +
                     "start: " + dto.getStart() + " end: " + dto.getEnd() + " now: ");
         }
         User user = userRepository.findById(userId).orElseThrow(() -> new NotFoundException(NOT_FOUND_USER + userId));
-        Item item = itemRepository.findById(dto.getItemId()).orElseThrow(() -> new NotFoundException(NOT_FOUND_ITEM + dto.getItemId()));
+        Item item = itemCache.findById(dto.getItemId()).orElseThrow(() -> new NotFoundException(NOT_FOUND_ITEM + dto.getItemId()));
         if (userId.equals(item.getOwner())) {
             throw new NotFoundException(INVALID_BUCKING);
         }
@@ -67,134 +93,213 @@ public class BookingService {
 
         Booking booking = BookingMapper.toModel(dto, item, user);
         booking.setStatus(BookingStatus.WAITING);
-        booking = bookingRepository.save(booking);
-        return BookingMapper.toPostResponseDto(booking, item);
+        Booking saved = itemLocks.withItemLock(item.getId(), () -> saveWithoutOverlap(booking));
+        summaryService.refresh(List.of(item.getId()));
+        timeline.add(item.getId(), saved.getId(), saved.getStart(), saved.getEnd());
+        return BookingMapper.toPostResponseDto(saved, item);
     }
 
-    public BookingResponseDto patchBooking(Integer bookingId, Boolean approved, Integer userId) {
-        Booking booking = bookingRepository.findById(bookingId).orElseThrow();
-        Item item = itemRepository.findById(booking.getItem().getId()).orElseThrow();
-
-        if (!item.getOwner().equals(userId)) {
-            throw new NotFoundException(DENIED_ACCESS_MESSAGE + userId);
+    /**
+     * Создаёт пачку бронирований одного пользователя. Вещи загружаются одним запросом,
+     * действующие бронирования всех вещей пачки - ещё одним, проверки идут в памяти.
+     * Прошедшие проверку записи сохраняются одним {@code saveAll} в общей транзакции,
+     * остальные возвращаются с причиной отказа на своей позиции.
+     */
+    @Transactional
+    public List<BookingBatchResultDto> createBookings(List<BookingPostDto> dtos, Integer userId) {
+        if (dtos.isEmpty() || dtos.size() > MAX_BATCH_SIZE) {
+            throw new InvalidBookingException(INVALID_BATCH_SIZE_MESSAGE + dtos.size());
         }
+        User user = userRepository.findById(userId).orElseThrow(() -> new NotFoundException(NOT_FOUND_USER + userId));
+        Set<Integer> itemIds = dtos.stream()
+                .map(BookingPostDto::getItemId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Integer, Item> items = itemCache.findAllById(itemIds);
 
-        BookingStatus status = convertToStatus(approved);
+        String[] errors = new String[dtos.size()];
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        List<Booking> saved = itemLocks.withItemLocks(items.keySet(), () -> {
+            LocalDateTime now = LocalDateTime.now();
+            Map<Integer, List<BookingIntervalDto>> busy = bookingRepository
+                    .findActiveIntervals(items.keySet(), ItemBookingSummaryService.ACTIVE_STATUSES, now).stream()
+                    .collect(Collectors.groupingBy(BookingIntervalDto::getItemId,
+                            Collectors.toCollection(ArrayList::new)));
+            List<Booking> accepted = new ArrayList<>();
+            for (int i = 0; i < dtos.size(); i++) {
+                BookingPostDto dto = dtos.get(i);
+                Item item = items.get(dto.getItemId());
+                errors[i] = checkBatchEntry(dto, item, userId, now);
+                if (errors[i] == null) {
+                    List<BookingIntervalDto> itemBusy = busy.computeIfAbsent(item.getId(), id -> new ArrayList<>());
+                    if (overlaps(itemBusy, dto.getStart(), dto.getEnd())) {
+                        errors[i] = OVERLAPPING_BOOKING_MESSAGE + item.getId();
+                        continue;
+                    }
+                    itemBusy.add(new BookingIntervalDto(null, item.getId(), dto.getStart(), dto.getEnd()));
+                    accepted.add(BookingMapper.toModel(dto, item, user));
+                    acceptedIndexes.add(i);
+                }
+            }
+            return accepted.isEmpty() ? accepted : bookingRepository.saveAll(accepted);
+        });
 
-        if (booking.getStatus().equals(status)) {
-            throw new InvalidBookingException("");
+        List<BookingBatchResultDto> results = new ArrayList<>();
+        for (int i = 0; i < dtos.size(); i++) {
+            if (errors[i] != null) {
+                results.add(BookingBatchResultDto.builder().index(i).error(errors[i]).build());
+            }
+        }
+        for (int i = 0; i < saved.size(); i++) {
+            Booking booking = saved.get(i);
+            timeline.add(booking.getItem().getId(), booking.getId(), booking.getStart(), booking.getEnd());
+            results.add(BookingBatchResultDto.builder()
+                    .index(acceptedIndexes.get(i))
+                    .booking(BookingMapper.toPostResponseDto(booking, booking.getItem()))
+                    .build());
+        }
+        if (!saved.isEmpty()) {
+            summaryService.refresh(saved.stream().map(booking -> booking.getItem().getId())
+                    .distinct()
+                    .collect(Collectors.toList()));
         }
+        results.sort(Comparator.comparingInt(BookingBatchResultDto::getIndex));
+        return results;
+    }
 
-        booking.setStatus(status);
-        booking = bookingRepository.save(booking);
-        return BookingMapper.toResponseDto(booking, booking.getBooker(), item);
+    /**
+     * Меняет статус одним условным UPDATE и затем один раз читает бронь для ответа.
+     * Если UPDATE не затронул строк, по прочитанной брони определяется причина отказа.
+     * Сводка пересчитывается только при отклонении: одобренная бронь остаётся действующей.
+     * Пересчёт идёт под блокировкой вещи, как и при создании брони.
+     */
+    @Transactional
+    public BookingResponseDto patchBooking(Integer bookingId, Boolean approved, Integer userId) {
+        int updated = bookingRepository.updateStatus(bookingId, userId, convertToStatus(approved), WAITING);
+        Booking booking = bookingRepository.findWithItemAndBookerById(bookingId)
+                .orElseThrow(() -> new NotFoundException(BOOKING_NOT_FOUND_MESSAGE + bookingId));
+        if (updated == 0) {
+            if (!booking.getItem().getOwner().equals(userId)) {
+                throw new NotFoundException(DENIED_ACCESS_MESSAGE + userId);
+            }
+            throw new InvalidBookingException(ALREADY_DECIDED_MESSAGE + booking.getStatus());
+        }
+
+        if (booking.getStatus() == REJECTED) {
+            Integer itemId = booking.getItem().getId();
+            itemLocks.withItemLock(itemId, () -> {
+                summaryService.refresh(List.of(itemId));
+                return null;
+            });
+            timeline.remove(itemId, booking.getId());
+        }
+        return BookingMapper.toResponseDto(booking, booking.getBooker(), booking.getItem());
     }
 
     public BookingDetailedDto findById(Integer bookingId, Integer userId) {
-        checkIfUserExists(userId);
-        checkBookingExists(bookingId);
-        Booking booking = bookingRepository.findById(bookingId).orElseThrow();
-        Integer itemOwner = booking.getItem().getOwner();
-        Integer bookingOwner = booking.getBooker().getId();
-        boolean itemOrBookingOwner = userId.equals(bookingOwner) || userId.equals(itemOwner);
+        return bookingRepository.findDetailedById(bookingId, userId)
+                .orElseThrow(() -> new NotFoundException(DENIED_ACCESS_MESSAGE + userId));
+    }
 
-        if (!itemOrBookingOwner) {
-            throw new NotFoundException(DENIED_ACCESS_MESSAGE + userId);
-        }
-        return BookingMapper.toDetailedDto(booking);
+    public List<BookingDetailedDto> findAllByBooker(String stateValue, Integer userId, Integer itemId, int from,
+                                                    PageCursor cursor, int size) {
+        return findAll(BookingQuery.Role.BOOKER, stateValue, userId, itemId, from, cursor, size);
+    }
+
+    public List<BookingDetailedDto> findAllByItemOwner(String stateValue, Integer userId, Integer itemId, int from,
+                                                       PageCursor cursor, int size) {
+        return findAll(BookingQuery.Role.OWNER, stateValue, userId, itemId, from, cursor, size);
     }
 
-    public List<BookingDetailedDto> findAllByBooker(String stateValue, Integer userId, int from, int size) {
+    public long countAllByBooker(String stateValue, Integer userId, Integer itemId) {
         checkIfUserExists(userId);
-        State status = parseState(stateValue);
-        LocalDateTime now = LocalDateTime.now();
-        List<Booking> bookings = new ArrayList<>();
-
-        Pageable pageable = PageRequest.of(from / size, size, SORT);
-
-        switch (status) {
-            case REJECTED :
-                bookings = bookingRepository
-                        .findByBookerIdAndStatus(userId, REJECTED, pageable).toList();
-                break;
-            case WAITING :
-                bookings = bookingRepository
-                        .findByBookerIdAndStatus(userId, WAITING, pageable).toList();
-                break;
-            case CURRENT :
-                bookings = bookingRepository.findByBookerIdCurrent(userId, now, pageable).toList();
-                break;
-            case FUTURE :
-                bookings = bookingRepository
-                        .findByBookerIdAndStartIsAfter(userId, now, pageable).toList();
-                break;
-            case PAST :
-                bookings = bookingRepository
-                        .findByBookerIdAndEndIsBefore(userId, now, pageable).toList();
-                break;
-            case ALL :
-                bookings = bookingRepository.findByBookerId(userId, pageable).toList();
-                break;
-        }
-        return BookingMapper.toListDetailedDto(bookings);
-    }
-
-    public List<BookingDetailedDto> findAllByItemOwner(String stateValue, Integer userId, int from, int size) {
+        return bookingRepository.countMatching(query(BookingQuery.Role.BOOKER, stateValue, userId, itemId).build());
+    }
+
+    public long countAllByItemOwner(String stateValue, Integer userId, Integer itemId) {
         checkIfUserExists(userId);
-        State state = parseState(stateValue);
-        LocalDateTime now = LocalDateTime.now();
-        List<Booking> bookings = new ArrayList<>();
-
-        Pageable pageable = PageRequest.of(from / size, size, SORT);
-
-        switch (state) {
-            case REJECTED :
-                bookings = bookingRepository
-                        .findBookingByItemOwnerAndStatus(userId, REJECTED, pageable).toList();
-                break;
-            case WAITING :
-                bookings = bookingRepository
-                        .findBookingByItemOwnerAndStatus(userId, WAITING, pageable).toList();
-                break;
-            case CURRENT :
-                bookings = bookingRepository.findBookingsByItemOwnerCurrent(userId, now, pageable).toList();
-                break;
-            case FUTURE :
-                bookings = bookingRepository
-                        .findBookingByItemOwnerAndStartIsAfter(userId, now, pageable).toList();
-                break;
-            case PAST :
-                bookings = bookingRepository
-                        .findBookingByItemOwnerAndEndIsBefore(userId, now, pageable).toList();
-                break;
-            case ALL :
-                bookings = bookingRepository
-                        .findBookingByItemOwner(userId, pageable).toList();
-                break;
-        }
-        return BookingMapper.toListDetailedDto(bookings);
+        return bookingRepository.countMatching(query(BookingQuery.Role.OWNER, stateValue, userId, itemId).build());
     }
 
-    private void checkIfUserExists(Integer userId) {
-        userRepository.findById(userId).orElseThrow(() -> new NotFoundException(NOT_FOUND_USER + userId));
+    private List<BookingDetailedDto> findAll(BookingQuery.Role role, String stateValue, Integer userId, Integer itemId,
+                                             int from, PageCursor cursor, int size) {
+        checkIfUserExists(userId);
+        BookingQuery query = query(role, stateValue, userId, itemId)
+                .offset(from)
+                .cursor(cursor)
+                .size(size)
+                .build();
+        return bookingRepository.findDetailed(query);
     }
 
-    private void checkBookingExists(Integer bookingId) {
-        bookingRepository.findById(bookingId).orElseThrow(() -> new NotFoundException(""));
+    private BookingQuery.BookingQueryBuilder query(BookingQuery.Role role, String stateValue, Integer userId,
+                                                   Integer itemId) {
+        return BookingQuery.builder()
+                .role(role)
+                .userId(userId)
+                .itemId(itemId)
+                .states(parseStates(stateValue))
+                .now(LocalDateTime.now());
+    }
+
+    private Booking saveWithoutOverlap(Booking booking) {
+        Integer itemId = booking.getItem().getId();
+        if (bookingRepository.existsOverlapping(itemId, booking.getId(), ItemBookingSummaryService.ACTIVE_STATUSES,
+                booking.getStart(), booking.getEnd())) {
+            throw new InvalidBookingException(OVERLAPPING_BOOKING_MESSAGE + itemId);
+        }
+        try {
+            return bookingRepository.saveAndFlush(booking);
+        } catch (DataIntegrityViolationException e) {
+            throw new InvalidBookingException(OVERLAPPING_BOOKING_MESSAGE + itemId);
+        }
+    }
+
+    private String checkBatchEntry(BookingPostDto dto, Item item, Integer userId, LocalDateTime now) {
+        if (item == null) {
+            return NOT_FOUND_ITEM + dto.getItemId();
+        }
+        if (!isStartBeforeEnd(dto) || dto.getStart().isBefore(now)) {
+            return BOOKING_INVALID_MESSAGE + "start: " + dto.getStart() + " end: " + dto.getEnd() + " now: " + now;
+        }
+        if (userId.equals(item.getOwner())) {
+            return INVALID_BUCKING;
+        }
+        if (!item.getAvailable()) {
+            return UNAVAILABLE_BOOKING_MESSAGE + item.getId();
+        }
+        return null;
+    }
+
+    private static boolean overlaps(List<BookingIntervalDto> intervals, LocalDateTime start, LocalDateTime end) {
+        for (BookingIntervalDto interval : intervals) {
+            if (interval.getStart().isBefore(end) && start.isBefore(interval.getEnd())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void checkIfUserExists(Integer userId) {
+        if (!userExistence.exists(userId)) {
+            throw new NotFoundException(NOT_FOUND_USER + userId);
+        }
     }
 
     private BookingStatus convertToStatus(Boolean approved) {
         return approved ? BookingStatus.APPROVED : REJECTED;
     }
 
-    private State parseState(String state) {
-        State status;
-        try {
-            status = State.valueOf(state);
-        } catch (IllegalArgumentException e) {
-            throw new InvalidBookingException("Unknown state: " + state);
+    private Set<State> parseStates(String stateValue) {
+        Set<State> states = EnumSet.noneOf(State.class);
+        for (String state : stateValue.split(STATE_SEPARATOR)) {
+            try {
+                states.add(State.valueOf(state.trim()));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidBookingException("Unknown state: " + state);
+            }
         }
-        return status;
+        return states;
     }
 
     private boolean isStartBeforeEnd(BookingPostDto dto) {
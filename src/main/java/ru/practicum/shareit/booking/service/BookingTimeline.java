@@ -0,0 +1,218 @@
+package ru.practicum.shareit.booking.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.BookingIntervalDto;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.cache.ExpiringCache;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+import static ru.practicum.shareit.transaction.TransactionCallbacks.afterCommit;
+
+/**
+ * Отсортированные по началу периоды APPROVED и WAITING бронирований каждой вещи в памяти.
+ * Таймлайн вещи загружается из базы при первом обращении, дальше меняется только через
+ * {@link #add} и {@link #remove} после коммита транзакции. Активные бронирования одной вещи
+ * не пересекаются, поэтому концы периодов тоже отсортированы и запрос диапазона
+ * выполняется за O(log n + k). В памяти держится не больше {@code shareit.cache.timeline.max-size}
+ * вещей, давно не использованные вытесняются, а каждая запись перечитывается из базы
+ * не реже раза в {@code shareit.cache.timeline.ttl}, заодно отбрасывая закончившиеся периоды.
+ */
+@Component
+public class BookingTimeline {
+    private final BookingRepository bookingRepository;
+    private final ExpiringCache<Integer, ItemTimeline> timelines;
+    private volatile long version;
+
+    @Autowired
+    public BookingTimeline(BookingRepository bookingRepository,
+                           @Value("${shareit.cache.timeline.max-size:10000}") int maxSize,
+                           @Value("${shareit.cache.timeline.ttl:PT10M}") Duration ttl) {
+        this.bookingRepository = bookingRepository;
+        this.timelines = new ExpiringCache<>(maxSize, ttl);
+    }
+
+    /**
+     * Периоды, пересекающиеся с [from, to), в порядке возрастания начала.
+     */
+    public List<BookingIntervalDto> findBusy(Integer itemId, LocalDateTime from, LocalDateTime to) {
+        ItemTimeline timeline = timelines.get(itemId)
+                .orElseGet(() -> loadAll(List.of(itemId)).get(itemId));
+        return timeline.findBusy(itemId, toNanos(from), toNanos(to));
+    }
+
+    /**
+     * Id вещей из {@code itemIds}, свободных на всём [from, to). Таймлайны, которых ещё нет
+     * в памяти, загружаются одним запросом на всю пачку.
+     */
+    public Set<Integer> findFree(Collection<Integer> itemIds, LocalDateTime from, LocalDateTime to) {
+        Map<Integer, ItemTimeline> found = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (Integer itemId : itemIds) {
+            Optional<ItemTimeline> timeline = timelines.get(itemId);
+            if (timeline.isPresent()) {
+                found.put(itemId, timeline.get());
+            } else {
+                missing.add(itemId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            found.putAll(loadAll(missing));
+        }
+
+        long fromNanos = toNanos(from);
+        long toNanos = toNanos(to);
+        Set<Integer> free = new HashSet<>();
+        for (Map.Entry<Integer, ItemTimeline> entry : found.entrySet()) {
+            if (!entry.getValue().isBusy(fromNanos, toNanos)) {
+                free.add(entry.getKey());
+            }
+        }
+        return free;
+    }
+
+    public void add(Integer itemId, Integer bookingId, LocalDateTime start, LocalDateTime end) {
+        afterCommit(() -> update(itemId, timeline -> timeline.with(bookingId, toNanos(start), toNanos(end))));
+    }
+
+    public void remove(Integer itemId, Integer bookingId) {
+        afterCommit(() -> update(itemId, timeline -> timeline.without(bookingId)));
+    }
+
+    private synchronized void update(Integer itemId, UnaryOperator<ItemTimeline> change) {
+        version++;
+        timelines.get(itemId).ifPresent(timeline -> timelines.put(itemId, change.apply(timeline)));
+    }
+
+    /**
+     * Загружает таймлайны пачки вещей. Загруженное попадает в кэш, только если за время запроса
+     * не было ни одного {@link #update}: иначе изменение могло пройти мимо загруженных данных.
+     * Сам запрос идёт без монитора, который держит {@link #update}.
+     */
+    private Map<Integer, ItemTimeline> loadAll(List<Integer> itemIds) {
+        long loadedVersion = version;
+        Map<Integer, ItemTimeline> loaded = new HashMap<>();
+        for (Integer itemId : itemIds) {
+            loaded.put(itemId, ItemTimeline.EMPTY);
+        }
+        for (BookingIntervalDto interval : bookingRepository
+                .findActiveIntervals(itemIds, ItemBookingSummaryService.ACTIVE_STATUSES, LocalDateTime.now())) {
+            loaded.computeIfPresent(interval.getItemId(), (id, timeline) ->
+                    timeline.with(interval.getId(), toNanos(interval.getStart()), toNanos(interval.getEnd())));
+        }
+        synchronized (this) {
+            if (loadedVersion == version) {
+                loaded.forEach(timelines::put);
+            }
+        }
+        return loaded;
+    }
+
+    private static long toNanos(LocalDateTime time) {
+        return Math.addExact(Math.multiplyExact(time.toEpochSecond(ZoneOffset.UTC), 1_000_000_000L), time.getNano());
+    }
+
+    private static LocalDateTime fromNanos(long nanos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L),
+                (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+
+    /**
+     * Неизменяемый таймлайн одной вещи: параллельные массивы начала, конца и id бронирования.
+     */
+    private static final class ItemTimeline {
+        static final ItemTimeline EMPTY = new ItemTimeline(new long[0], new long[0], new int[0]);
+
+        private final long[] starts;
+        private final long[] ends;
+        private final int[] ids;
+
+        private ItemTimeline(long[] starts, long[] ends, int[] ids) {
+            this.starts = starts;
+            this.ends = ends;
+            this.ids = ids;
+        }
+
+        ItemTimeline with(int id, long start, long end) {
+            ItemTimeline base = without(id);
+            int position = Arrays.binarySearch(base.starts, start);
+            if (position < 0) {
+                position = -position - 1;
+            }
+            int size = base.starts.length;
+            long[] newStarts = new long[size + 1];
+            long[] newEnds = new long[size + 1];
+            int[] newIds = new int[size + 1];
+            System.arraycopy(base.starts, 0, newStarts, 0, position);
+            System.arraycopy(base.ends, 0, newEnds, 0, position);
+            System.arraycopy(base.ids, 0, newIds, 0, position);
+            newStarts[position] = start;
+            newEnds[position] = end;
+            newIds[position] = id;
+            System.arraycopy(base.starts, position, newStarts, position + 1, size - position);
+            System.arraycopy(base.ends, position, newEnds, position + 1, size - position);
+            System.arraycopy(base.ids, position, newIds, position + 1, size - position);
+            return new ItemTimeline(newStarts, newEnds, newIds);
+        }
+
+        ItemTimeline without(int id) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == id) {
+                    int size = ids.length;
+                    long[] newStarts = new long[size - 1];
+                    long[] newEnds = new long[size - 1];
+                    int[] newIds = new int[size - 1];
+                    System.arraycopy(starts, 0, newStarts, 0, i);
+                    System.arraycopy(ends, 0, newEnds, 0, i);
+                    System.arraycopy(ids, 0, newIds, 0, i);
+                    System.arraycopy(starts, i + 1, newStarts, i, size - i - 1);
+                    System.arraycopy(ends, i + 1, newEnds, i, size - i - 1);
+                    System.arraycopy(ids, i + 1, newIds, i, size - i - 1);
+                    return new ItemTimeline(newStarts, newEnds, newIds);
+                }
+            }
+            return this;
+        }
+
+        boolean isBusy(long from, long to) {
+            int first = firstEndingAfter(from);
+            return first < starts.length && starts[first] < to;
+        }
+
+        List<BookingIntervalDto> findBusy(int itemId, long from, long to) {
+            List<BookingIntervalDto> busy = new ArrayList<>();
+            for (int i = firstEndingAfter(from); i < starts.length && starts[i] < to; i++) {
+                busy.add(new BookingIntervalDto(ids[i], itemId, fromNanos(starts[i]), fromNanos(ends[i])));
+            }
+            return busy;
+        }
+
+        private int firstEndingAfter(long from) {
+            int low = 0;
+            int high = ends.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (ends[middle] <= from) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
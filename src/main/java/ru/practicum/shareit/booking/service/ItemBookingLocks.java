@@ -0,0 +1,79 @@
+package ru.practicum.shareit.booking.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Полосатые блокировки по id вещи. Бронирования одной вещи выполняются последовательно,
+ * бронирования разных вещей блокируют друг друга только при совпадении полосы.
+ * Внутри транзакции блокировка держится до её завершения, чтобы следующая проверка
+ * пересечений увидела уже закоммиченное бронирование.
+ */
+@Component
+public class ItemBookingLocks {
+    private final ReentrantLock[] stripes;
+
+    @Autowired
+    public ItemBookingLocks(@Value("${shareit.booking.lock-stripes:64}") int stripeCount) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("Количество полос должно быть положительным: " + stripeCount);
+        }
+        stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public <T> T withItemLock(Integer itemId, Supplier<T> action) {
+        return withItemLocks(List.of(itemId), action);
+    }
+
+    /**
+     * Берёт полосы всех вещей пачки в порядке возрастания номера полосы, поэтому две пачки
+     * с пересекающимися вещами не могут заблокировать друг друга.
+     */
+    public <T> T withItemLocks(Collection<Integer> itemIds, Supplier<T> action) {
+        int[] indexes = itemIds.stream()
+                .mapToInt(itemId -> Math.floorMod(itemId.hashCode(), stripes.length))
+                .distinct()
+                .sorted()
+                .toArray();
+        int locked = 0;
+        boolean unlockOnCompletion = false;
+        try {
+            for (int index : indexes) {
+                stripes[index].lock();
+                locked++;
+            }
+            T result = action.get();
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        unlock(indexes, indexes.length);
+                    }
+                });
+                unlockOnCompletion = true;
+            }
+            return result;
+        } finally {
+            if (!unlockOnCompletion) {
+                unlock(indexes, locked);
+            }
+        }
+    }
+
+    private void unlock(int[] indexes, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            stripes[indexes[i]].unlock();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.repository.ItemBookingSummaryRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Фоновый пересчёт сводок: по расписанию - вещей с наступившим {@code refreshAt}, при старте - вещей
+ * без сводки. Каждая пачка пересчитывается через {@link ItemBookingSummaryService#refreshLocked}
+ * в своей транзакции, поэтому блокировки вещей держатся только на время одной пачки.
+ */
+@Slf4j
+@Component
+public class ItemBookingSummaryJob {
+    static final int REFRESH_BATCH_SIZE = 500;
+    private final ItemBookingSummaryRepository summaryRepository;
+    private final ItemBookingSummaryService summaryService;
+
+    @Autowired
+    public ItemBookingSummaryJob(ItemBookingSummaryRepository summaryRepository,
+                                 ItemBookingSummaryService summaryService) {
+        this.summaryRepository = summaryRepository;
+        this.summaryService = summaryService;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.summary.refresh-delay:60000}")
+    public void refreshDue() {
+        List<Integer> dueIds;
+        do {
+            dueIds = summaryRepository.findDueItemIds(LocalDateTime.now(), PageRequest.of(0, REFRESH_BATCH_SIZE));
+            if (!dueIds.isEmpty()) {
+                summaryService.refreshLocked(dueIds);
+            }
+        } while (dueIds.size() == REFRESH_BATCH_SIZE);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        List<Integer> itemIds;
+        int refreshed = 0;
+        do {
+            itemIds = summaryRepository.findItemIdsWithoutSummary(PageRequest.of(0, REFRESH_BATCH_SIZE));
+            if (!itemIds.isEmpty()) {
+                summaryService.refreshLocked(itemIds);
+                refreshed += itemIds.size();
+            }
+        } while (itemIds.size() == REFRESH_BATCH_SIZE);
+        if (refreshed > 0) {
+            log.info("Построены сводки бронирований для вещей: " + refreshed);
+        }
+    }
+}
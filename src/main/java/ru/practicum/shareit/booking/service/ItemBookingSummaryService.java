@@ -0,0 +1,116 @@
+package ru.practicum.shareit.booking.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.ItemActiveBookingsDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.ItemBookingSummaryRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ведёт таблицу item_booking_summary. Сводка пересчитывается в транзакции каждой записи
+ * бронирования и {@link ItemBookingSummaryJob} - для вещей, у которых наступил {@code refreshAt}.
+ * При чтении устаревшие строки пересчитываются в памяти, не дожидаясь задачи.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ItemBookingSummaryService {
+    public static final List<BookingStatus> ACTIVE_STATUSES = List.of(BookingStatus.APPROVED, BookingStatus.WAITING);
+    private final ItemBookingSummaryRepository summaryRepository;
+    private final BookingRepository bookingRepository;
+    private final ItemBookingLocks itemLocks;
+
+    @Autowired
+    public ItemBookingSummaryService(ItemBookingSummaryRepository summaryRepository,
+                                     BookingRepository bookingRepository,
+                                     ItemBookingLocks itemLocks) {
+        this.summaryRepository = summaryRepository;
+        this.bookingRepository = bookingRepository;
+        this.itemLocks = itemLocks;
+    }
+
+    public Map<Integer, ItemBookingSummary> findByItemIds(List<Integer> itemIds) {
+        Map<Integer, ItemBookingSummary> result = new HashMap<>();
+        if (itemIds.isEmpty()) {
+            return result;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Integer> staleIds = new ArrayList<>();
+        for (ItemBookingSummary summary : summaryRepository.findAllById(itemIds)) {
+            if (summary.getRefreshAt() != null && !summary.getRefreshAt().isAfter(now)) {
+                staleIds.add(summary.getItemId());
+            } else {
+                result.put(summary.getItemId(), summary);
+            }
+        }
+        if (!staleIds.isEmpty()) {
+            for (ItemBookingSummary summary : compute(staleIds, now)) {
+                result.put(summary.getItemId(), summary);
+            }
+        }
+        return result;
+    }
+
+    @Transactional
+    public void refresh(List<Integer> itemIds) {
+        summaryRepository.saveAll(compute(itemIds, LocalDateTime.now()));
+    }
+
+    /**
+     * Пересчитывает пачку вещей фоновой задачи в собственной транзакции под блокировками этих вещей.
+     * Блокировки держатся до коммита, поэтому запись бронирования той же вещи не может закоммититься
+     * между расчётом сводки и её сохранением, и задача не затирает более новую строку.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void refreshLocked(List<Integer> itemIds) {
+        itemLocks.withItemLocks(itemIds, () -> {
+            refresh(itemIds);
+            return null;
+        });
+    }
+
+    private List<ItemBookingSummary> compute(List<Integer> itemIds, LocalDateTime now) {
+        Map<Integer, ItemBookingSummary> summaries = new LinkedHashMap<>();
+        for (Integer itemId : itemIds) {
+            summaries.put(itemId, ItemBookingSummary.builder().itemId(itemId).build());
+        }
+
+        for (Booking booking : bookingRepository.findLastAndNextBookings(itemIds, now, BookingStatus.REJECTED)) {
+            ItemBookingSummary summary = summaries.get(booking.getItem().getId());
+            if (booking.getStart().isBefore(now)) {
+                if (summary.getLastBookingId() == null) {
+                    summary.setLastBookingId(booking.getId());
+                    summary.setLastBookerId(booking.getBooker().getId());
+                    summary.setLastStart(booking.getStart());
+                    summary.setLastEnd(booking.getEnd());
+                }
+            } else if (summary.getNextBookingId() == null) {
+                summary.setNextBookingId(booking.getId());
+                summary.setNextBookerId(booking.getBooker().getId());
+                summary.setNextStart(booking.getStart());
+                summary.setNextEnd(booking.getEnd());
+                summary.setRefreshAt(booking.getStart());
+            }
+        }
+
+        for (ItemActiveBookingsDto active : bookingRepository.countActiveBookings(itemIds, ACTIVE_STATUSES, now)) {
+            ItemBookingSummary summary = summaries.get(active.getItemId());
+            summary.setActiveBookings(active.getCount().intValue());
+            if (summary.getRefreshAt() == null || active.getEarliestEnd().isBefore(summary.getRefreshAt())) {
+                summary.setRefreshAt(active.getEarliestEnd());
+            }
+        }
+        return new ArrayList<>(summaries.values());
+    }
+}
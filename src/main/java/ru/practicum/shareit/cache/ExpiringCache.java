@@ -0,0 +1,112 @@
+package ru.practicum.shareit.cache;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+/**
+ * Потокобезопасный LRU-кэш с ограничением по размеру и временем жизни записей.
+ * Считает попадания, промахи и вытеснения (по размеру и по истечении срока).
+ */
+public class ExpiringCache<K, V> {
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final LinkedHashMap<K, CacheEntry<V>> entries;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public ExpiringCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, System::nanoTime);
+    }
+
+    public ExpiringCache(int maxSize, Duration ttl, LongSupplier nanoClock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize должен быть положительным: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public synchronized Optional<V> get(K key) {
+        CacheEntry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return Optional.empty();
+        }
+        if (entry.isExpired(nanoClock.getAsLong())) {
+            entries.remove(key);
+            evictions++;
+            misses++;
+            return Optional.empty();
+        }
+        hits++;
+        return Optional.of(entry.value);
+    }
+
+    public void put(K key, V value) {
+        put(key, value, ttlNanos);
+    }
+
+    public synchronized void put(K key, V value, Duration ttl) {
+        put(key, value, ttl.toNanos());
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, entries.size());
+    }
+
+    /**
+     * После вставки просматривает записи только со старого конца: истёкшие удаляются, пока не встретится живая,
+     * а живые вытесняются, только пока размер превышает {@code maxSize}. Каждая запись удаляется один раз,
+     * поэтому вставка в полный кэш не обходит его целиком; истёкшие записи глубже удаляются в {@link #get}.
+     */
+    private synchronized void put(K key, V value, long ttl) {
+        long now = nanoClock.getAsLong();
+        entries.put(key, new CacheEntry<>(value, now + ttl));
+        Iterator<CacheEntry<V>> eldest = entries.values().iterator();
+        while (eldest.hasNext()) {
+            if (!eldest.next().isExpired(now) && entries.size() <= maxSize) {
+                break;
+            }
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class CacheEntry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final int size;
+    }
+}
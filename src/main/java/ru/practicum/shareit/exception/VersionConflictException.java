@@ -0,0 +1,10 @@
+package ru.practicum.shareit.exception;
+
+/**
+ * Запись изменена с тех пор, как клиент прочитал переданную в запросе версию.
+ */
+public class VersionConflictException extends RuntimeException {
+    public VersionConflictException(String message) {
+        super(message);
+    }
+}
@@ -11,7 +11,9 @@ import ru.practicum.shareit.booking.exception.InvalidBookingException;
 import ru.practicum.shareit.item.exception.CommentException;
 import ru.practicum.shareit.item.exception.NotFoundItemException;
 import ru.practicum.shareit.exception.EmailConflictException;
+import ru.practicum.shareit.exception.InvalidCursorException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.VersionConflictException;
 
 /**
  * @author Min Danil 28.09.2023
@@ -46,6 +48,15 @@ public class ErrorHandler {
         return new ErrorResponse(message);
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleVersionConflictException(final VersionConflictException e) {
+        String message = e.getMessage();
+
+        log.error(message);
+        return new ErrorResponse(message);
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleCommentException(CommentException e) {
@@ -60,6 +71,13 @@ public class ErrorHandler {
         return new ErrorResponse(e.getMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleInvalidCursorException(InvalidCursorException e) {
+        log.error(e.getMessage());
+        return new ErrorResponse(e.getMessage());
+    }
+
     @RequiredArgsConstructor
     @Getter
     public static class ErrorResponse {
@@ -2,30 +2,47 @@ package ru.practicum.shareit.item.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CreateCommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSearchResultDto;
+import ru.practicum.shareit.item.service.ItemAvailabilityService;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.item.validation.Create;
 import ru.practicum.shareit.item.validation.Update;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import java.time.LocalDateTime;
 import java.util.List;
 
+@Validated
 @RestController
 @RequestMapping("/items")
 @Slf4j
 @RequiredArgsConstructor
 public class ItemController {
+    public static final String DEFAULT_FROM_VALUE = "0";
+    public static final String DEFAULT_SIZE_VALUE = "20";
     public static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    public static final String PARTIAL_RESULT_HEADER = "X-Partial-Result";
     private final ItemService itemService;
+    private final ItemAvailabilityService availabilityService;
 
     @GetMapping
-    public List<ItemDto> getAllItems(@RequestHeader(USER_ID_HEADER) Integer userId) {
+    public List<ItemDto> getAllItems(@RequestHeader(USER_ID_HEADER) Integer userId,
+                                     @RequestParam(defaultValue = DEFAULT_FROM_VALUE)
+                                     @PositiveOrZero int from,
+                                     @RequestParam(defaultValue = DEFAULT_SIZE_VALUE)
+                                     @Positive int size) {
         log.info("Получен get-запрос /items");
-        return itemService.getAllItems(userId);
+        return itemService.getAllItems(userId, from, size);
     }
 
     @GetMapping("/{itemId}")
@@ -34,6 +51,16 @@ public class ItemController {
         return itemService.getItemById(itemId, userId);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailabilityDto getAvailability(@PathVariable Integer itemId,
+                                               @RequestParam(required = false)
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                               @RequestParam(required = false)
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Получен get-запрос /items/" + itemId + "/availability");
+        return availabilityService.getAvailability(itemId, from, to);
+    }
+
     @PostMapping
     public ItemDto saveItem(@RequestHeader(USER_ID_HEADER) Integer userId,
                             @Validated({Create.class}) @RequestBody ItemDto itemDTO) {
@@ -65,9 +92,22 @@ public class ItemController {
     }
 
     @GetMapping("/search")
-    public List<ItemDto> searchAvailableItems(@RequestParam String text) {
+    public List<ItemDto> searchAvailableItems(@RequestParam String text,
+                                              @RequestParam(defaultValue = DEFAULT_FROM_VALUE)
+                                              @PositiveOrZero int from,
+                                              @RequestParam(defaultValue = DEFAULT_SIZE_VALUE)
+                                              @Positive int size,
+                                              @RequestParam(required = false)
+                                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                              @RequestParam(required = false)
+                                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+                                              HttpServletResponse response) {
         log.info("Получен get-запрос /items/search?text=" + text);
-        return itemService.searchAvailableItemsByText(text);
+        ItemSearchResultDto result = itemService.searchAvailableItemsByText(text, start, end, from, size);
+        if (result.isPartial()) {
+            response.setHeader(PARTIAL_RESULT_HEADER, "true");
+        }
+        return result.getItems();
     }
 
 }
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Свободные и занятые периоды вещи внутри запрошенного диапазона [from, to).
+ */
+@Value
+@Builder
+public class ItemAvailabilityDto {
+    Integer itemId;
+    LocalDateTime from;
+    LocalDateTime to;
+    List<Interval> busy;
+    List<Interval> free;
+
+    @Value
+    public static class Interval {
+        LocalDateTime start;
+        LocalDateTime end;
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Проекция комментария вместе с id вещи, к которой он оставлен.
+ */
+@Data
+@AllArgsConstructor
+public class ItemCommentDto {
+    private Integer itemId;
+    private Integer id;
+    private String text;
+    private String authorName;
+    private LocalDateTime created;
+}
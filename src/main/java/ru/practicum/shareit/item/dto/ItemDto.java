@@ -29,4 +29,5 @@ public class ItemDto {
     private BookingInItemDto nextBooking;
     private List<CommentDto> comments;
     private Integer requestId;
+    private Long version;
 }
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Страница поиска свободных на окне вещей. {@code partial} означает, что просмотр совпадений
+ * остановился на лимите и подходящие вещи дальше по выдаче движка могли не попасть в страницу.
+ */
+@Value
+@Builder
+public class ItemSearchResultDto {
+    List<ItemDto> items;
+    boolean partial;
+}
@@ -1,6 +1,5 @@
 package ru.practicum.shareit.item.model;
 
-import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -8,14 +7,13 @@ import lombok.NoArgsConstructor;
 import javax.persistence.*;
 
 @Data
-@Builder
 @Entity(name = "items")
-@AllArgsConstructor
 @NoArgsConstructor
 public class Item {
     @Id
     @Column(name = "item_id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = 50)
     private int id;
     @Column(name = "name", nullable = false)
     private String name;
@@ -27,4 +25,17 @@ public class Item {
     private Integer owner;
     @Column(name = "request_id")
     private Integer requestId;
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    @Builder
+    public Item(int id, String name, String description, Boolean available, Integer owner, Integer requestId) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.available = available;
+        this.owner = owner;
+        this.requestId = requestId;
+    }
 }
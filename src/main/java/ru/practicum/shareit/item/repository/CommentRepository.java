@@ -1,6 +1,8 @@
 package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.dto.ItemCommentDto;
 import ru.practicum.shareit.item.model.Comment;
 
 import java.util.List;
@@ -9,5 +11,10 @@ import java.util.List;
  * @author Min Danil 12.10.2023
  */
 public interface CommentRepository extends JpaRepository<Comment, Integer> {
-    List<Comment> findByItemId(Integer itemId);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemCommentDto(c.item.id, c.id, c.text, c.author.name, c.created) " +
+            "from Comment c " +
+            "where c.item.id in ?1 " +
+            "order by c.created")
+    List<ItemCommentDto> findAllByItemIdIn(List<Integer> itemIds);
 }
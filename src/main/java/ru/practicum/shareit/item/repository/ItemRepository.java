@@ -1,6 +1,5 @@
 package ru.practicum.shareit.item.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -11,15 +10,33 @@ import java.util.List;
 /**
  * @author Min Danil 28.09.2023
  */
-public interface ItemRepository extends JpaRepository<Item, Integer> {
+public interface ItemRepository extends JpaRepository<Item, Integer>, ItemRepositoryCustom {
 
     @Query(" select i from items i " +
             "where upper(i.name) like upper(concat('%', ?1, '%')) " +
-            " or upper(i.description) like upper(concat('%', ?1, '%')) and i.available = true")
-    List<Item> search(String text);
+            " or upper(i.description) like upper(concat('%', ?1, '%')) and i.available = true " +
+            "order by i.id")
+    List<Item> search(String text, Pageable pageable);
 
-    @Query("select i from items i where i.owner = ?1")
-    Page<Item> findAll(Integer userId, Pageable pageable);
+    @Query(value = "select i.* from items i " +
+            "where i.available = true " +
+            "and to_tsvector('simple', i.name || ' ' || i.description) @@ to_tsquery('simple', ?1) " +
+            "order by ts_rank(to_tsvector('simple', i.name || ' ' || i.description), to_tsquery('simple', ?1)) desc, " +
+            "i.item_id " +
+            "limit ?2 offset ?3",
+            nativeQuery = true)
+    List<Item> fullTextSearch(String query, int limit, int offset);
+
+    /**
+     * Вещи владельца по началу ближайшего бронирования из item_booking_summary - того же,
+     * что показывается в {@code nextBooking}; вещи без него идут в конце.
+     */
+    @Query(value = "select i.* from items i " +
+            "left join item_booking_summary s on s.item_id = i.item_id " +
+            "where i.owner = ?1 " +
+            "order by s.next_start nulls last, i.item_id",
+            nativeQuery = true)
+    List<Item> findAllByOwnerOrderByNextBooking(Integer userId, Pageable pageable);
 
     List<Item> findAllByRequestId(Integer requestId);
 
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.repository;
+
+/**
+ * Частичное обновление вещи владельцем одним {@code UPDATE}: меняются только переданные (не null) поля
+ * и версия, остальные столбцы (в том числе {@code request_id}) не трогаются. Владелец проверяется тем же
+ * запросом; если {@code expectedVersion} задан, строка обновляется только при совпадении версии.
+ */
+public interface ItemRepositoryCustom {
+
+    /**
+     * @return число обновлённых строк: 0, если вещи нет, владелец другой или версия не совпала
+     */
+    int patch(int itemId, Integer ownerId, String name, String description, Boolean available, Long expectedVersion);
+}
@@ -0,0 +1,38 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.OffsetPageRequest;
+
+import java.util.List;
+
+/**
+ * Поиск через {@code like} по таблице items. Индекс не нужен, поэтому
+ * {@link #index(Item)} и {@link #remove(Integer)} ничего не делают.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "database")
+public class DatabaseItemSearchEngine implements ItemSearchEngine {
+    private final ItemRepository repository;
+
+    @Autowired
+    public DatabaseItemSearchEngine(ItemRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public List<Item> search(String text, int from, int size) {
+        return repository.search(text, OffsetPageRequest.of(from, size));
+    }
+
+    @Override
+    public void index(Item item) {
+    }
+
+    @Override
+    public void remove(Integer itemId) {
+    }
+}
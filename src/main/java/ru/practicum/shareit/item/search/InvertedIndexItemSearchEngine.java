@@ -0,0 +1,125 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+
+/**
+ * Инвертированный индекс в памяти: слово -> id доступных вещей, в названии или описании
+ * которых оно встречается. Каждое слово запроса ищется как префикс, вещь попадает в выдачу,
+ * если совпали все слова. Выдача упорядочена по id, из базы читается только запрошенная
+ * страница. Индекс строится из базы при старте и обновляется из {@code ItemService},
+ * поэтому рассчитан на один экземпляр приложения.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "memory", matchIfMissing = true)
+public class InvertedIndexItemSearchEngine implements ItemSearchEngine {
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private final ItemRepository repository;
+    private final NavigableMap<String, Set<Integer>> postings = new ConcurrentSkipListMap<>();
+    private final Map<Integer, Set<String>> tokensByItem = new ConcurrentHashMap<>();
+
+    @Autowired
+    public InvertedIndexItemSearchEngine(ItemRepository repository) {
+        this.repository = repository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        postings.clear();
+        tokensByItem.clear();
+        Page<Item> page;
+        int pageNumber = 0;
+        do {
+            page = repository.findAll(PageRequest.of(pageNumber++, REBUILD_BATCH_SIZE, Sort.by("id")));
+            page.forEach(this::index);
+        } while (page.hasNext());
+        log.info("Поисковый индекс построен, вещей в индексе: " + tokensByItem.size());
+    }
+
+    @Override
+    public List<Item> search(String text, int from, int size) {
+        Set<Integer> ids = null;
+        for (String token : SearchTokenizer.tokenize(text)) {
+            Set<Integer> matches = findByPrefix(token);
+            if (ids == null) {
+                ids = matches;
+            } else {
+                ids.retainAll(matches);
+            }
+            if (ids.isEmpty()) {
+                break;
+            }
+        }
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Integer> pageIds = ids.stream()
+                .sorted()
+                .skip(from)
+                .limit(size)
+                .collect(Collectors.toList());
+        if (pageIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return repository.findAllById(pageIds).stream()
+                .sorted(Comparator.comparingInt(Item::getId))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public synchronized void index(Item item) {
+        remove(item.getId());
+        if (!Boolean.TRUE.equals(item.getAvailable())) {
+            return;
+        }
+        Set<String> tokens = new HashSet<>(SearchTokenizer.tokenize(item.getName()));
+        tokens.addAll(SearchTokenizer.tokenize(item.getDescription()));
+        for (String token : tokens) {
+            postings.computeIfAbsent(token, key -> ConcurrentHashMap.newKeySet()).add(item.getId());
+        }
+        tokensByItem.put(item.getId(), tokens);
+    }
+
+    @Override
+    public synchronized void remove(Integer itemId) {
+        Set<String> tokens = tokensByItem.remove(itemId);
+        if (tokens == null) {
+            return;
+        }
+        for (String token : tokens) {
+            postings.computeIfPresent(token, (key, ids) -> {
+                ids.remove(itemId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    private Set<Integer> findByPrefix(String prefix) {
+        Set<Integer> result = new HashSet<>();
+        for (Set<Integer> ids : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            result.addAll(ids);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.item.search;
+
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+/**
+ * Поиск доступных вещей по тексту в названии и описании.
+ * Реализация выбирается свойством {@code shareit.search.engine}.
+ */
+public interface ItemSearchEngine {
+
+    /**
+     * Возвращает страницу доступных вещей, отсортированную так, как её выдаёт движок.
+     */
+    List<Item> search(String text, int from, int size);
+
+    void index(Item item);
+
+    void remove(Integer itemId);
+}
@@ -3,6 +3,7 @@ package ru.practicum.shareit.item.service;
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CreateCommentDto;
+import ru.practicum.shareit.item.dto.ItemCommentDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
@@ -35,6 +36,15 @@ public class CommentMapper {
                 .build();
     }
 
+    public CommentDto toCommentDto(ItemCommentDto comment) {
+        return CommentDto.builder()
+                .id(comment.getId())
+                .text(comment.getText())
+                .authorName(comment.getAuthorName())
+                .created(comment.getCreated())
+                .build();
+    }
+
     public List<CommentDto> toCommentDtoList(List<Comment> comments) {
         return comments.stream()
                 .map(this::toCommentDto)
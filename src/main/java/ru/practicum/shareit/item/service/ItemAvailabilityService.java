@@ -0,0 +1,66 @@
+package ru.practicum.shareit.item.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.dto.BookingIntervalDto;
+import ru.practicum.shareit.booking.exception.InvalidBookingException;
+import ru.practicum.shareit.booking.service.BookingTimeline;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Календарь занятости вещи. Отвечает из {@link BookingTimeline}, без запросов к базе
+ * после первой загрузки таймлайна вещи.
+ */
+@Service
+public class ItemAvailabilityService {
+    public static final Duration DEFAULT_PERIOD = Duration.ofDays(30);
+    public static final String INVALID_PERIOD_MESSAGE = "Начало периода должно быть раньше конца: ";
+    private static final String NOT_FOUND_ITEM = "Не найден item с id = ";
+    private final ItemCache itemCache;
+    private final BookingTimeline timeline;
+
+    @Autowired
+    public ItemAvailabilityService(ItemCache itemCache, BookingTimeline timeline) {
+        this.itemCache = itemCache;
+        this.timeline = timeline;
+    }
+
+    public ItemAvailabilityDto getAvailability(Integer itemId, LocalDateTime from, LocalDateTime to) {
+        itemCache.findById(itemId).orElseThrow(() -> new NotFoundException(NOT_FOUND_ITEM + itemId));
+        LocalDateTime start = from == null ? LocalDateTime.now() : from;
+        LocalDateTime end = to == null ? start.plus(DEFAULT_PERIOD) : to;
+        if (!start.isBefore(end)) {
+            throw new InvalidBookingException(INVALID_PERIOD_MESSAGE + "from: " + start + " to: " + end);
+        }
+
+        List<ItemAvailabilityDto.Interval> busy = new ArrayList<>();
+        List<ItemAvailabilityDto.Interval> free = new ArrayList<>();
+        LocalDateTime cursor = start;
+        for (BookingIntervalDto interval : timeline.findBusy(itemId, start, end)) {
+            LocalDateTime busyStart = interval.getStart().isBefore(start) ? start : interval.getStart();
+            LocalDateTime busyEnd = interval.getEnd().isAfter(end) ? end : interval.getEnd();
+            if (cursor.isBefore(busyStart)) {
+                free.add(new ItemAvailabilityDto.Interval(cursor, busyStart));
+            }
+            busy.add(new ItemAvailabilityDto.Interval(busyStart, busyEnd));
+            cursor = busyEnd;
+        }
+        if (cursor.isBefore(end)) {
+            free.add(new ItemAvailabilityDto.Interval(cursor, end));
+        }
+
+        return ItemAvailabilityDto.builder()
+                .itemId(itemId)
+                .from(start)
+                .to(end)
+                .busy(busy)
+                .free(free)
+                .build();
+    }
+}
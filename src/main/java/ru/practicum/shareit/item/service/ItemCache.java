@@ -0,0 +1,96 @@
+package ru.practicum.shareit.item.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.cache.ExpiringCache;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.transaction.TransactionCallbacks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Read-through кэш вещей по id перед {@link ItemRepository}. Хранит и отдаёт отсоединённые копии,
+ * поэтому изменения возвращённого объекта не попадают в кэш. Записи сбрасываются
+ * при изменении и удалении вещи и по истечении {@code shareit.cache.item.ttl}.
+ */
+@Component
+public class ItemCache {
+    private final ItemRepository repository;
+    private final ExpiringCache<Integer, Item> cache;
+
+    @Autowired
+    public ItemCache(ItemRepository repository,
+                     @Value("${shareit.cache.item.max-size:10000}") int maxSize,
+                     @Value("${shareit.cache.item.ttl:PT5M}") Duration ttl) {
+        this.repository = repository;
+        this.cache = new ExpiringCache<>(maxSize, ttl);
+    }
+
+    public Optional<Item> findById(Integer itemId) {
+        Optional<Item> cached = cache.get(itemId);
+        if (cached.isPresent()) {
+            return cached.map(ItemCache::copy);
+        }
+        Optional<Item> item = repository.findById(itemId);
+        item.ifPresent(found -> cache.put(itemId, copy(found)));
+        return item;
+    }
+
+    /**
+     * Вещи по набору id: найденные в кэше отдаются из него, остальные загружаются одним запросом.
+     * Отсутствующих в базе id в результате нет.
+     */
+    public Map<Integer, Item> findAllById(Collection<Integer> itemIds) {
+        Map<Integer, Item> found = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (Integer itemId : itemIds) {
+            Optional<Item> cached = cache.get(itemId);
+            if (cached.isPresent()) {
+                found.put(itemId, copy(cached.get()));
+            } else {
+                missing.add(itemId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (Item item : repository.findAllById(missing)) {
+                cache.put(item.getId(), copy(item));
+                found.put(item.getId(), item);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Сбрасывает запись сразу и ещё раз после коммита: до коммита параллельный запрос
+     * может заново закэшировать старую строку, и она прожила бы весь TTL.
+     */
+    public void evict(Integer itemId) {
+        cache.invalidate(itemId);
+        TransactionCallbacks.afterCommit(() -> cache.invalidate(itemId));
+    }
+
+    public ExpiringCache.Stats stats() {
+        return cache.stats();
+    }
+
+    private static Item copy(Item item) {
+        Item copy = Item.builder()
+                .id(item.getId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .available(item.getAvailable())
+                .owner(item.getOwner())
+                .requestId(item.getRequestId())
+                .build();
+        copy.setVersion(item.getVersion());
+        return copy;
+    }
+}
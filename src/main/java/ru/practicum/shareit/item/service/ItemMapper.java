@@ -1,12 +1,10 @@
 package ru.practicum.shareit.item.service;
 
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
-import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.service.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingInItemDto;
+import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemInRequestDto;
-import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 
 import java.util.ArrayList;
@@ -19,13 +17,6 @@ import java.util.stream.Collectors;
 @Component
 public class ItemMapper {
 
-    private final CommentMapper commentMapper;
-
-    @Autowired
-    public ItemMapper(CommentMapper commentMapper) {
-        this.commentMapper = commentMapper;
-    }
-
     public Item toItem(ItemDto itemDto) {
         return Item.builder()
                 .id(itemDto.getId())
@@ -45,33 +36,36 @@ public class ItemMapper {
                 .available(item.getAvailable())
                 .owner(item.getOwner())
                 .requestId(item.getRequestId())
+                .version(item.getVersion())
                 .build();
     }
 
-    public ItemDto toDto(Item item, Booking lastBooking,
-                         Booking nextBooking, List<Comment> comments) {
+    public ItemDto toDto(Item item, BookingInItemDto lastBooking,
+                         BookingInItemDto nextBooking, List<CommentDto> comments) {
         return ItemDto.builder()
                 .id(item.getId())
                 .name(item.getName())
                 .description(item.getDescription())
                 .available(item.getAvailable())
                 .owner(item.getOwner())
-                .lastBooking(BookingMapper.bookingInItemDto(lastBooking))
-                .nextBooking(BookingMapper.bookingInItemDto(nextBooking))
-                .comments(commentMapper.toCommentDtoList(comments))
+                .lastBooking(lastBooking)
+                .nextBooking(nextBooking)
+                .comments(comments)
                 .requestId(item.getRequestId())
+                .version(item.getVersion())
                 .build();
     }
 
-    public ItemDto toDto(Item item, List<Comment> comments) {
+    public ItemDto toDto(Item item, List<CommentDto> comments) {
         return ItemDto.builder()
                 .id(item.getId())
                 .name(item.getName())
                 .description(item.getDescription())
                 .available(item.getAvailable())
                 .owner(item.getOwner())
-                .comments(commentMapper.toCommentDtoList(comments))
+                .comments(comments)
                 .requestId(item.getRequestId())
+                .version(item.getVersion())
                 .build();
     }
 
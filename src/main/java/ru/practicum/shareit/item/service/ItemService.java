@@ -1,31 +1,43 @@
 package ru.practicum.shareit.item.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.exception.InvalidBookingException;
+import ru.practicum.shareit.booking.service.BookingMapper;
+import ru.practicum.shareit.booking.service.BookingTimeline;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryService;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CreateCommentDto;
+import ru.practicum.shareit.item.dto.ItemCommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSearchResultDto;
 import ru.practicum.shareit.item.exception.CommentException;
 import ru.practicum.shareit.item.exception.NotFoundItemException;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
-import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.pagination.OffsetPageRequest;
+import ru.practicum.shareit.transaction.TransactionCallbacks;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.VersionConflictException;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
-import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -39,105 +51,96 @@ public class ItemService {
     public static final String COMMENT_EXCEPTION_MESSAGE = "Нельзя оставить комментарий на вещь, " +
             "который вы не пользовались или ещё не закончился срок аренды";
     private static final String NOT_FOUND_ITEM = "Не найден item с id = ";
+    private static final String VERSION_CONFLICT_MESSAGE = "Вещь уже изменена, ожидаемая версия: ";
+    private static final int MAX_PATCH_ATTEMPTS = 3;
+    public static final int MAX_SEARCH_PAGE_SIZE = 100;
+    public static final int MAX_WINDOW_SEARCH_BATCHES = 10;
+    public static final String INVALID_WINDOW_MESSAGE = "Окно поиска задаётся парой start < end: ";
     private final ItemRepository repository;
     private final CommentRepository commentRepository;
     private final CommentMapper commentMapper;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
     private final ItemMapper itemMapper;
-    private final UserService userService;
+    private final UserExistenceCache userExistence;
+    private final ItemSearchEngine searchEngine;
+    private final ItemCache itemCache;
+    private final ItemBookingSummaryService summaryService;
+    private final BookingTimeline timeline;
 
     @Autowired
-    public ItemService(ItemRepository repository, CommentRepository commentRepository, CommentMapper commentMapper, UserRepository userRepository, BookingRepository bookingRepository, ItemMapper itemMapper, UserService userService) {
+    public ItemService(ItemRepository repository, CommentRepository commentRepository, CommentMapper commentMapper, UserRepository userRepository, BookingRepository bookingRepository, ItemMapper itemMapper, UserExistenceCache userExistence, ItemSearchEngine searchEngine, ItemCache itemCache, ItemBookingSummaryService summaryService, BookingTimeline timeline) {
         this.repository = repository;
         this.commentRepository = commentRepository;
         this.commentMapper = commentMapper;
         this.userRepository = userRepository;
         this.bookingRepository = bookingRepository;
         this.itemMapper = itemMapper;
-        this.userService = userService;
+        this.userExistence = userExistence;
+        this.searchEngine = searchEngine;
+        this.itemCache = itemCache;
+        this.summaryService = summaryService;
+        this.timeline = timeline;
     }
 
-    public List<ItemDto> getAllItems(Integer userId) {
-        List<Item> userItems = repository.findAll()
-                .stream().filter(item -> item.getOwner().equals(userId))
-                .collect(Collectors.toList());
+    public List<ItemDto> getAllItems(Integer userId, int from, int size) {
+        Pageable pageable = OffsetPageRequest.of(from, size);
+        List<Item> userItems = repository.findAllByOwnerOrderByNextBooking(userId, pageable);
 
         List<ItemDto> result = new ArrayList<>();
         fillItemDtoList(result, userItems, userId);
-
-        result.sort((o1, o2) -> {
-            if (o1.getNextBooking() == null && o2.getNextBooking() == null) {
-                return 0;
-            }
-            if (o1.getNextBooking() != null && o2.getNextBooking() == null) {
-                return -1;
-            }
-            if (o1.getNextBooking() == null && o2.getNextBooking() != null) {
-                return 1;
-            }
-            if (o1.getNextBooking().getStart().isBefore(o2.getNextBooking().getStart())) {
-                return -1;
-            }
-            if (o1.getNextBooking().getStart().isAfter(o2.getNextBooking().getStart())) {
-                return 1;
-            }
-            return 0;
-        });
         return result;
     }
 
     private void fillItemDtoList(List<ItemDto> targetList, List<Item> foundItems, Integer userId) {
-        LocalDateTime now = LocalDateTime.now();
-        Sort sortDesc = Sort.by("start").descending();
+        List<Integer> itemIds = foundItems.stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+        List<Integer> ownItemIds = foundItems.stream()
+                .filter(item -> item.getOwner().equals(userId))
+                .map(Item::getId)
+                .collect(Collectors.toList());
+
+        Map<Integer, ItemBookingSummary> summaries = summaryService.findByItemIds(ownItemIds);
+
+        Map<Integer, List<CommentDto>> commentsByItem = new HashMap<>();
+        if (!itemIds.isEmpty()) {
+            for (ItemCommentDto comment : commentRepository.findAllByItemIdIn(itemIds)) {
+                commentsByItem.computeIfAbsent(comment.getItemId(), id -> new ArrayList<>())
+                        .add(commentMapper.toCommentDto(comment));
+            }
+        }
 
         for (Item item : foundItems) {
-            List<Comment> comments = commentRepository.findByItemId(item.getId());
+            List<CommentDto> comments = commentsByItem.getOrDefault(item.getId(), Collections.emptyList());
             if (item.getOwner().equals(userId)) {
-                ItemDto dto = constructItemDtoForOwner(item, now, sortDesc, comments);
-                targetList.add(dto);
+                ItemBookingSummary summary = summaries.get(item.getId());
+                targetList.add(itemMapper.toDto(item,
+                        BookingMapper.lastBookingInItemDto(summary),
+                        BookingMapper.nextBookingInItemDto(summary),
+                        comments));
             } else {
                 targetList.add(itemMapper.toDto(item, comments));
             }
         }
     }
 
-    private ItemDto constructItemDtoForOwner(Item item, LocalDateTime now, Sort sort, List<Comment> comments) {
-        Booking lastBooking = bookingRepository.findBookingByItemIdAndStartBefore(item.getId(), now, sort)
-                .stream()
-                .findFirst()
-                .orElse(null);
-
-        sort = sort.ascending();
-        Booking nextBooking = bookingRepository.findBookingByItemIdAndStartAfter(item.getId(), now, sort)
-                .stream()
-                .filter(booking -> !booking.getStatus().equals(BookingStatus.REJECTED))
-                .findFirst()
-                .orElse(null);
-        return itemMapper.toDto(item,
-                lastBooking,
-                nextBooking,
-                comments);
-    }
-
     public ItemDto getItemById(Integer itemId, Integer userId) {
-        Item item = repository.findById(itemId).orElseThrow(() -> new NotFoundException(NOT_FOUND_ITEM + itemId));
-
-        List<Comment> comments = commentRepository.findByItemId(itemId);
+        Item item = itemCache.findById(itemId).orElseThrow(() -> new NotFoundException(NOT_FOUND_ITEM + itemId));
 
-        if (item.getOwner().equals(userId)) {
-            LocalDateTime now = LocalDateTime.now();
-            Sort sortDesc = Sort.by("start").descending();
-            return constructItemDtoForOwner(item, now, sortDesc, comments);
-        }
-        return itemMapper.toDto(item, null, null, comments);
+        List<ItemDto> result = new ArrayList<>();
+        fillItemDtoList(result, List.of(item), userId);
+        return result.get(0);
     }
 
     @Transactional
     public ItemDto saveItem(Integer userId, ItemDto itemDTO) {
-        UserDto userDto = userService.getUser(userId);
-        itemDTO.setOwner(userDto.getId());
+        if (!userExistence.exists(userId)) {
+            throw new NotFoundException(NOT_FOUND_USER + userId);
+        }
+        itemDTO.setOwner(userId);
         Item item = repository.save(itemMapper.toItem(itemDTO));
+        TransactionCallbacks.afterCommit(() -> searchEngine.index(item));
         return itemMapper.toDto(item);
     }
 
@@ -155,40 +158,117 @@ public class ItemService {
         return commentMapper.toCommentDto(comment);
     }
 
+    /**
+     * Меняет только переданные поля одним {@code UPDATE} с проверкой владельца и версии в том же запросе,
+     * так что {@code requestId} и параллельные правки других полей не теряются. Текущее состояние берётся
+     * из {@link ItemCache}, ответ собирается из него и переданных полей без повторного чтения.
+     * Без {@code version} в патче сверяется прочитанная версия; если вещь успели изменить,
+     * она перечитывается из базы и обновление повторяется.
+     */
     @Transactional
     public ItemDto updateItem(Integer itemId, Integer userId, ItemDto itemDTO) {
-        Item oldItem = repository.findById(itemId).orElseThrow(() -> new NotFoundException(NOT_FOUND_ITEM + itemId));
-        checkOwner(userId, oldItem);
-        Item updatedItem = Item.builder()
-                .id(itemId)
-                .owner(oldItem.getOwner())
-                .name(Objects.requireNonNullElse(itemDTO.getName(), oldItem.getName()))
-                .description(Objects.requireNonNullElse(itemDTO.getDescription(), oldItem.getDescription()))
-                .available(Objects.requireNonNullElse(itemDTO.getAvailable(), oldItem.getAvailable()))
-                .build();
-
-        repository.save(updatedItem);
+        String name = itemDTO.getName();
+        String description = itemDTO.getDescription();
+        Boolean available = itemDTO.getAvailable();
+        Item item = itemCache.findById(itemId).orElseThrow(() -> new NotFoundException(NOT_FOUND_ITEM + itemId));
+        for (int attempt = 1; ; attempt++) {
+            checkOwner(userId, item);
+            if (name == null && description == null && available == null) {
+                return itemMapper.toDto(item);
+            }
+            long expectedVersion = Objects.requireNonNullElse(itemDTO.getVersion(), item.getVersion());
+            if (repository.patch(itemId, userId, name, description, available, expectedVersion) == 1) {
+                item.setName(Objects.requireNonNullElse(name, item.getName()));
+                item.setDescription(Objects.requireNonNullElse(description, item.getDescription()));
+                item.setAvailable(Objects.requireNonNullElse(available, item.getAvailable()));
+                item.setVersion(expectedVersion + 1);
+                break;
+            }
+            if (itemDTO.getVersion() != null || attempt == MAX_PATCH_ATTEMPTS) {
+                throw new VersionConflictException(VERSION_CONFLICT_MESSAGE + expectedVersion);
+            }
+            item = repository.findById(itemId).orElseThrow(() -> new NotFoundException(NOT_FOUND_ITEM + itemId));
+        }
+        itemCache.evict(itemId);
+        Item patched = item;
+        TransactionCallbacks.afterCommit(() -> searchEngine.index(patched));
 
-        return itemMapper.toDto(updatedItem);
+        return itemMapper.toDto(item);
     }
 
-    public List<ItemDto> searchAvailableItemsByText(String text) {
+    public List<ItemDto> searchAvailableItemsByText(String text, int from, int size) {
         if (text.isBlank()) {
             return new ArrayList<>();
         }
 
-        return repository.search(text).stream().map(item -> {
-            ItemDto itemDTO = itemMapper.toDto(item);
-            itemDTO.setOwner(item.getOwner());
-            return itemDTO;
-        }).collect(Collectors.toList());
+        return toSearchDtoList(searchEngine.search(text, from, Math.min(size, MAX_SEARCH_PAGE_SIZE)));
     }
 
+    /**
+     * Поиск вещей, свободных на всём окне [start, end). Результаты движка читаются пачками
+     * по {@link #MAX_SEARCH_PAGE_SIZE} и фильтруются по {@link BookingTimeline}, так что
+     * {@code from} и {@code size} относятся уже к отфильтрованному списку. Просматривается
+     * не больше {@link #MAX_WINDOW_SEARCH_BATCHES} пачек; если лимит исчерпан раньше выдачи движка,
+     * результат помечается как неполный.
+     */
+    public ItemSearchResultDto searchAvailableItemsByText(String text, LocalDateTime start, LocalDateTime end,
+                                                          int from, int size) {
+        if (start == null && end == null) {
+            return ItemSearchResultDto.builder().items(searchAvailableItemsByText(text, from, size)).build();
+        }
+        if (start == null || end == null || !start.isBefore(end)) {
+            throw new InvalidBookingException(INVALID_WINDOW_MESSAGE + "start: " + start + " end: " + end);
+        }
+        if (text.isBlank()) {
+            return ItemSearchResultDto.builder().items(new ArrayList<>()).build();
+        }
+
+        int pageSize = Math.min(size, MAX_SEARCH_PAGE_SIZE);
+        List<Item> result = new ArrayList<>();
+        int skipped = 0;
+        int offset = 0;
+        boolean exhausted = false;
+        for (int batches = 0; batches < MAX_WINDOW_SEARCH_BATCHES && result.size() < pageSize; batches++) {
+            List<Item> batch = searchEngine.search(text, offset, MAX_SEARCH_PAGE_SIZE);
+            Set<Integer> free = timeline.findFree(
+                    batch.stream().map(Item::getId).collect(Collectors.toList()), start, end);
+            for (Item item : batch) {
+                if (!free.contains(item.getId())) {
+                    continue;
+                }
+                if (skipped < from) {
+                    skipped++;
+                } else if (result.size() < pageSize) {
+                    result.add(item);
+                }
+            }
+            if (batch.size() < MAX_SEARCH_PAGE_SIZE) {
+                exhausted = true;
+                break;
+            }
+            offset += batch.size();
+        }
+        return ItemSearchResultDto.builder()
+                .items(toSearchDtoList(result))
+                .partial(!exhausted && result.size() < pageSize)
+                .build();
+    }
 
+    @Transactional
     public void deleteItem(Integer userId, Integer itemId) {
         Item item = repository.findById(itemId).orElseThrow();
         checkOwner(userId, item);
         repository.deleteById(itemId);
+        itemCache.evict(itemId);
+        TransactionCallbacks.afterCommit(() -> searchEngine.remove(itemId));
+    }
+
+    private List<ItemDto> toSearchDtoList(List<Item> items) {
+        return items.stream().map(item -> {
+            ItemDto itemDTO = itemMapper.toDto(item);
+            itemDTO.setOwner(item.getOwner());
+            return itemDTO;
+        }).collect(Collectors.toList());
     }
 
     private void checkOwner(Integer userId, Item item) {
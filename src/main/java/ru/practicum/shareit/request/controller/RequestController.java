@@ -4,12 +4,15 @@ import lombok.AllArgsConstructor;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.item.validation.Create;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.dto.PostRequestDto;
 import ru.practicum.shareit.request.dto.PostResponseRequestDto;
 import ru.practicum.shareit.request.dto.RequestWithItemsDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.constraints.Min;
+import javax.validation.constraints.Positive;
 import java.util.List;
 
 @Validated
@@ -21,6 +24,7 @@ public class RequestController {
     public static final String DEFAULT_FROM_VALUE = "0";
     public static final String DEFAULT_SIZE_VALUE = "20";
     public static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    private static final int MAX_SIZE = 100;
 
     private final ItemRequestService service;
 
@@ -40,9 +44,21 @@ public class RequestController {
     public List<RequestWithItemsDto> findAll(@RequestParam(defaultValue = DEFAULT_FROM_VALUE)
                                              @Min(MIN_VALUE) int from,
                                              @RequestParam(defaultValue = DEFAULT_SIZE_VALUE)
-                                             @Min(MIN_VALUE) int size,
-                                             @RequestHeader(USER_ID_HEADER) Integer userId) {
-        return service.findAll(from, size, userId);
+                                             @Positive int size,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestHeader(USER_ID_HEADER) Integer userId,
+                                             HttpServletResponse response) {
+        int pageSize = Math.min(size, MAX_SIZE);
+        List<RequestWithItemsDto> rows = cursor == null
+                ? service.findAll(from, pageSize + 1, userId)
+                : service.findAllAfter(PageCursor.decode(cursor), pageSize + 1, userId);
+        if (rows.size() <= pageSize) {
+            return rows;
+        }
+        List<RequestWithItemsDto> requests = rows.subList(0, pageSize);
+        RequestWithItemsDto last = requests.get(pageSize - 1);
+        response.setHeader(PageCursor.NEXT_CURSOR_HEADER, PageCursor.of(last.getCreated(), last.getId()).encode());
+        return requests;
     }
 
     @GetMapping("/{requestId}")
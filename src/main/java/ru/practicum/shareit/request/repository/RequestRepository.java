@@ -1,11 +1,11 @@
 package ru.practicum.shareit.request.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.request.model.Request;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -14,8 +14,14 @@ import java.util.List;
 public interface RequestRepository extends JpaRepository<Request, Integer> {
     List<Request> findRequestByRequestorOrderByCreatedDesc(Integer requestor);
 
-    @Query("select r from requests r where r.requestor <> ?1")
-    Page<Request> findAll(Integer userId, Pageable pageable);
+    @Query("select r from requests r where r.requestor <> ?1 order by r.created desc, r.id desc")
+    List<Request> findAll(Integer userId, Pageable pageable);
+
+    @Query("select r from requests r " +
+            "where r.requestor <> ?1 " +
+            "and (r.created < ?2 or (r.created = ?2 and r.id < ?3)) " +
+            "order by r.created desc, r.id desc")
+    List<Request> findAllAfter(Integer userId, LocalDateTime created, Integer id, Pageable pageable);
 
 
 //    @Query("SELECT r, i FROM Request r LEFT JOIN FETCH r.items i WHERE r.requestor.id = :userId ORDER BY r.created DESC")
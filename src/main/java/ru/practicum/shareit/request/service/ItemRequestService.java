@@ -1,21 +1,20 @@
 package ru.practicum.shareit.request.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.OffsetPageRequest;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.request.repository.RequestRepository;
 import ru.practicum.shareit.request.dto.PostRequestDto;
 import ru.practicum.shareit.request.dto.PostResponseRequestDto;
 import ru.practicum.shareit.request.dto.RequestWithItemsDto;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -27,8 +26,7 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class ItemRequestService {
-    public static final Sort SORT = Sort.by("created").descending();
-    private final UserRepository userRepository;
+    private final UserExistenceCache userExistence;
     private final ItemRepository itemRepository;
     private final RequestRepository requestRepository;
     private final RequestMapper requestMapper;
@@ -69,10 +67,28 @@ public class ItemRequestService {
     public List<RequestWithItemsDto> findAll(int from, int size, Integer userId) {
         checkIfUserExists(userId);
 
-        Pageable pageable = PageRequest.of(from / size, size, Sort.Direction.DESC, "created");
+        Pageable pageable = OffsetPageRequest.of(from, size);
 
-        Page<Request> requests = requestRepository.findAll(userId, pageable);
+        return toRequestWithItemsDto(requestRepository.findAll(userId, pageable));
+    }
+
+    public List<RequestWithItemsDto> findAllAfter(PageCursor cursor, int size, Integer userId) {
+        checkIfUserExists(userId);
 
+        List<Request> requests = requestRepository.findAllAfter(userId, cursor.getTime(), cursor.getId(),
+                OffsetPageRequest.of(0, size));
+        return toRequestWithItemsDto(requests);
+    }
+
+    public RequestWithItemsDto findById(Integer requestId, Integer userId) {
+        checkIfUserExists(userId);
+        Request request = requestRepository.findById(requestId).orElseThrow(
+                () -> new NotFoundException(""));
+        List<Item> items = itemRepository.findAllByRequestId(requestId);
+        return requestMapper.toRequestWithItemsDto(request, items);
+    }
+
+    private List<RequestWithItemsDto> toRequestWithItemsDto(List<Request> requests) {
         List<Integer> requestIds = requests.stream().map(Request::getId).collect(Collectors.toList());
         Map<Integer, List<Item>> itemsMap = itemRepository.findAllByRequestIdIn(requestIds)
                 .stream().collect(Collectors.groupingBy(Item::getRequestId));
@@ -85,17 +101,10 @@ public class ItemRequestService {
                 .collect(Collectors.toList());
     }
 
-    public RequestWithItemsDto findById(Integer requestId, Integer userId) {
-        checkIfUserExists(userId);
-        Request request = requestRepository.findById(requestId).orElseThrow(
-                () -> new NotFoundException(""));
-        List<Item> items = itemRepository.findAllByRequestId(requestId);
-        return requestMapper.toRequestWithItemsDto(request, items);
-    }
-
     private void checkIfUserExists(Integer userId) {
-        userRepository.findById(userId).orElseThrow(
-                () -> new NotFoundException(""));
+        if (!userExistence.exists(userId)) {
+            throw new NotFoundException("");
+        }
     }
 
 }
@@ -2,25 +2,66 @@ package ru.practicum.shareit.user.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.item.validation.Create;
+import ru.practicum.shareit.pagination.IdCursor;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.user.dto.UserBulkResultDto;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserExporter;
+import ru.practicum.shareit.user.service.UserImporter;
 import ru.practicum.shareit.user.service.UserService;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.constraints.Positive;
+import java.io.IOException;
 import java.util.List;
 
+@Validated
 @RestController
 @RequestMapping(path = "/users")
 @Slf4j
 @RequiredArgsConstructor
 public class UserController {
+    public static final String NDJSON_VALUE = "application/x-ndjson";
+    private static final int DEFAULT_SIZE = 20;
+    private static final int MAX_SIZE = 100;
+
     private final UserService service;
+    private final UserExporter exporter;
+    private final UserImporter importer;
 
+    /**
+     * Страница пользователей по возрастанию id после {@code cursor}, без него - первая страница.
+     * Размер по умолчанию {@value #DEFAULT_SIZE}, больше {@value #MAX_SIZE} не отдаётся; всех пользователей
+     * выгружает {@code /users/export}. Если есть следующая страница, её курсор кладётся в {@code X-Next-Cursor}.
+     */
     @GetMapping
-    public List<UserDto> getAllUsers() {
+    public List<UserDto> getAllUsers(@RequestParam(required = false) String cursor,
+                                     @RequestParam(required = false) @Positive Integer size,
+                                     HttpServletResponse response) {
         log.info("Получен get-запрос /users");
-        return service.getAllUsers();
+        int pageSize = size == null ? DEFAULT_SIZE : Math.min(size, MAX_SIZE);
+        List<UserDto> rows = service.getUsersAfter(cursor == null ? null : IdCursor.decode(cursor), pageSize + 1);
+        if (rows.size() <= pageSize) {
+            return rows;
+        }
+        List<UserDto> users = rows.subList(0, pageSize);
+        response.setHeader(PageCursor.NEXT_CURSOR_HEADER, IdCursor.of(users.get(pageSize - 1).getId()).encode());
+        return users;
+    }
+
+    @GetMapping(path = "/export", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        log.info("Получен get-запрос /users/export");
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_VALUE))
+                .body(exporter::export);
     }
 
     @GetMapping("/{id}")
@@ -35,6 +76,18 @@ public class UserController {
         return service.saveUser(user);
     }
 
+    @PostMapping(path = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public List<UserBulkResultDto> importUsers(@RequestBody List<UserDto> users) {
+        log.info("Получен post-запрос /users/bulk");
+        return importer.importUsers(users);
+    }
+
+    @PostMapping(path = "/bulk", consumes = NDJSON_VALUE)
+    public List<UserBulkResultDto> importUsersNdjson(HttpServletRequest request) throws IOException {
+        log.info("Получен post-запрос /users/bulk в формате NDJSON");
+        return importer.importNdjson(request.getInputStream());
+    }
+
     @PatchMapping("/{id}")
     public UserDto updateUser(@RequestBody UserDto user, @PathVariable Integer id) {
         log.info("Получен patch-запрос /users/" + id);
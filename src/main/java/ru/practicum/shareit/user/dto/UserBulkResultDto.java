@@ -0,0 +1,16 @@
+package ru.practicum.shareit.user.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Результат одной записи массового импорта: созданный пользователь либо причина отказа.
+ * {@code index} указывает на позицию записи во входных данных.
+ */
+@Value
+@Builder
+public class UserBulkResultDto {
+    int index;
+    UserDto user;
+    String error;
+}
@@ -27,4 +27,5 @@ public class UserDto {
     @NotEmpty(groups = {Create.class, Update.class})
     @Size(max = 512)
     private String email;
+    private Long version;
 }
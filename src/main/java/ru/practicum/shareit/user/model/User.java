@@ -1,6 +1,5 @@
 package ru.practicum.shareit.user.model;
 
-import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -8,17 +7,26 @@ import lombok.NoArgsConstructor;
 import javax.persistence.*;
 
 @Data
-@Builder
 @Entity(name = "users")
-@AllArgsConstructor
 @NoArgsConstructor
 public class User {
     @Id
     @Column(name = "user_id", nullable = false, updatable = false)
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Integer id;
     @Column(name = "name", nullable = false)
     private String name;
     @Column(name = "email", unique = true, nullable = false)
     private String email;
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    @Builder
+    public User(Integer id, String name, String email) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+    }
 }
@@ -1,11 +1,21 @@
 package ru.practicum.shareit.user.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * @author Min Danil 27.09.2023
  */
 
-public interface UserRepository extends JpaRepository<User, Integer> {
+public interface UserRepository extends JpaRepository<User, Integer>, UserRepositoryCustom {
+
+    List<User> findByIdGreaterThanOrderById(Integer id, Pageable pageable);
+
+    @Query("select u.email from users u where u.email in ?1")
+    List<String> findExistingEmails(Collection<String> emails);
 }
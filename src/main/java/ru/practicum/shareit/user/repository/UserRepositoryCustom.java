@@ -0,0 +1,13 @@
+package ru.practicum.shareit.user.repository;
+
+/**
+ * Частичное обновление пользователя одним {@code UPDATE}: меняются только переданные (не null) поля
+ * и версия. Если {@code expectedVersion} задан, строка обновляется только при совпадении версии.
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * @return число обновлённых строк: 0, если пользователя нет или версия не совпала
+     */
+    int patch(Integer id, String name, String email, Long expectedVersion);
+}
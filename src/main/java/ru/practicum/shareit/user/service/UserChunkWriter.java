@@ -0,0 +1,36 @@
+package ru.practicum.shareit.user.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+/**
+ * Сохраняет порцию {@link UserImporter} в собственной транзакции: batch insert, flush и очистка
+ * контекста выполняются одной единицей. Ошибка откатывает только эту порцию, уже сохранённые остаются.
+ */
+@Component
+public class UserChunkWriter {
+    private final UserRepository repository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public UserChunkWriter(UserRepository repository) {
+        this.repository = repository;
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<User> saveChunk(List<User> users) {
+        List<User> saved = repository.saveAllAndFlush(users);
+        entityManager.clear();
+        return saved;
+    }
+}
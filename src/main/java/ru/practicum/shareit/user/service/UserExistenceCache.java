@@ -0,0 +1,59 @@
+package ru.practicum.shareit.user.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.cache.ExpiringCache;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Кэш существования пользователей по id для проверки заголовка {@code X-Sharer-User-Id}.
+ * Найденные id живут {@code shareit.cache.user.ttl}, ненайденные - короткий
+ * {@code shareit.cache.user.negative-ttl}, чтобы перебор несуществующих id не шёл в базу
+ * на каждый запрос. {@link UserService} отмечает созданных пользователей и сбрасывает удалённых.
+ */
+@Component
+public class UserExistenceCache {
+    private final UserRepository repository;
+    private final ExpiringCache<Integer, Boolean> cache;
+    private final Duration negativeTtl;
+
+    @Autowired
+    public UserExistenceCache(UserRepository repository,
+                              @Value("${shareit.cache.user.max-size:100000}") int maxSize,
+                              @Value("${shareit.cache.user.ttl:PT10M}") Duration ttl,
+                              @Value("${shareit.cache.user.negative-ttl:PT5S}") Duration negativeTtl) {
+        this.repository = repository;
+        this.cache = new ExpiringCache<>(maxSize, ttl);
+        this.negativeTtl = negativeTtl;
+    }
+
+    public boolean exists(Integer userId) {
+        Optional<Boolean> cached = cache.get(userId);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        boolean exists = repository.existsById(userId);
+        if (exists) {
+            cache.put(userId, true);
+        } else {
+            cache.put(userId, false, negativeTtl);
+        }
+        return exists;
+    }
+
+    public void markExisting(Integer userId) {
+        cache.put(userId, true);
+    }
+
+    public void evict(Integer userId) {
+        cache.invalidate(userId);
+    }
+
+    public ExpiringCache.Stats stats() {
+        return cache.stats();
+    }
+}
@@ -0,0 +1,64 @@
+package ru.practicum.shareit.user.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Выгрузка всех пользователей в NDJSON (один JSON-объект на строку).
+ * Строки читаются forward-only курсором порциями по {@code shareit.export.fetch-size}
+ * и сразу пишутся в поток, так что память не зависит от числа пользователей.
+ */
+@Component
+public class UserExporter {
+    private static final String SELECT_USERS = "SELECT user_id, name, email, version FROM users ORDER BY user_id";
+    private static final char LINE_SEPARATOR = '\n';
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public UserExporter(DataSource dataSource, ObjectMapper objectMapper,
+                        @Value("${shareit.export.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Транзакция нужна PostgreSQL: вне её (в autocommit) драйвер игнорирует fetch size и читает весь результат.
+     */
+    @Transactional(readOnly = true)
+    public void export(OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+            jdbcTemplate.query(SELECT_USERS, rs -> {
+                try {
+                    generator.writeObject(UserDto.builder()
+                            .id(rs.getInt("user_id"))
+                            .name(rs.getString("name"))
+                            .email(rs.getString("email"))
+                            .version(rs.getLong("version"))
+                            .build());
+                    generator.writeRaw(LINE_SEPARATOR);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package ru.practicum.shareit.user.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.exception.EmailConflictException;
+import ru.practicum.shareit.item.validation.Create;
+import ru.practicum.shareit.user.dto.UserBulkResultDto;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import javax.validation.groups.Default;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Массовый импорт пользователей. Записи обрабатываются порциями по {@link #CHUNK_SIZE}:
+ * занятые email проверяются одним запросом на порцию, новые пользователи сохраняются одним
+ * {@code saveAllAndFlush} (batch insert) в отдельной транзакции {@link UserChunkWriter}.
+ * Ошибка в записи не останавливает импорт, а попадает в результат на её позиции.
+ */
+@Component
+public class UserImporter {
+    public static final int CHUNK_SIZE = 1000;
+    private static final String EMAIL_CONFLICT = "Данный email уже занят пользователем";
+    private static final String MALFORMED_ROW = "Некорректный JSON: ";
+    private static final String CONSTRAINT_VIOLATION = "Запись нарушает ограничения базы данных";
+
+    private final UserRepository repository;
+    private final UserMapper mapper;
+    private final UserService userService;
+    private final UserChunkWriter chunkWriter;
+    private final UserExistenceCache existenceCache;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public UserImporter(UserRepository repository, UserMapper mapper, UserService userService,
+                        UserChunkWriter chunkWriter, UserExistenceCache existenceCache, Validator validator,
+                        ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.mapper = mapper;
+        this.userService = userService;
+        this.chunkWriter = chunkWriter;
+        this.existenceCache = existenceCache;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+    }
+
+    public List<UserBulkResultDto> importUsers(List<UserDto> users) {
+        List<UserBulkResultDto> results = new ArrayList<>(users.size());
+        for (int from = 0; from < users.size(); from += CHUNK_SIZE) {
+            List<UserDto> chunk = users.subList(from, Math.min(from + CHUNK_SIZE, users.size()));
+            List<Integer> indexes = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                indexes.add(from + i);
+            }
+            importChunk(indexes, chunk, results);
+        }
+        results.sort(Comparator.comparingInt(UserBulkResultDto::getIndex));
+        return results;
+    }
+
+    /**
+     * Импорт из NDJSON: каждая непустая строка - один пользователь, {@code index} - номер такой строки.
+     * Поток читается построчно, в памяти держится только текущая порция.
+     */
+    public List<UserBulkResultDto> importNdjson(InputStream in) throws IOException {
+        List<UserBulkResultDto> results = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>(CHUNK_SIZE);
+        List<UserDto> chunk = new ArrayList<>(CHUNK_SIZE);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        int index = 0;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                chunk.add(objectMapper.readValue(line, UserDto.class));
+                indexes.add(index);
+            } catch (JsonProcessingException e) {
+                results.add(UserBulkResultDto.builder().index(index).error(MALFORMED_ROW + e.getOriginalMessage()).build());
+            }
+            index++;
+            if (chunk.size() == CHUNK_SIZE) {
+                importChunk(indexes, chunk, results);
+                indexes.clear();
+                chunk.clear();
+            }
+        }
+        importChunk(indexes, chunk, results);
+        results.sort(Comparator.comparingInt(UserBulkResultDto::getIndex));
+        return results;
+    }
+
+    private void importChunk(List<Integer> indexes, List<UserDto> chunk, List<UserBulkResultDto> results) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        String[] errors = new String[chunk.size()];
+        Set<String> emails = new HashSet<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            errors[i] = validate(chunk.get(i));
+            if (errors[i] == null && !emails.add(chunk.get(i).getEmail())) {
+                errors[i] = EMAIL_CONFLICT;
+            }
+        }
+        Set<String> taken = emails.isEmpty() ? Set.of() : new HashSet<>(repository.findExistingEmails(emails));
+
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        List<User> accepted = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            if (errors[i] == null && taken.contains(chunk.get(i).getEmail())) {
+                errors[i] = EMAIL_CONFLICT;
+            }
+            if (errors[i] != null) {
+                results.add(UserBulkResultDto.builder().index(indexes.get(i)).error(errors[i]).build());
+                continue;
+            }
+            User user = mapper.toUser(chunk.get(i));
+            user.setId(null);
+            accepted.add(user);
+            acceptedIndexes.add(indexes.get(i));
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+        try {
+            List<User> saved = chunkWriter.saveChunk(accepted);
+            for (int i = 0; i < saved.size(); i++) {
+                existenceCache.markExisting(saved.get(i).getId());
+                results.add(UserBulkResultDto.builder()
+                        .index(acceptedIndexes.get(i))
+                        .user(mapper.toUserDTO(saved.get(i)))
+                        .build());
+            }
+        } catch (DataIntegrityViolationException e) {
+            saveOneByOne(acceptedIndexes, accepted, results);
+        }
+    }
+
+    /**
+     * Порцию опередила параллельная вставка с тем же email: её транзакция откатилась целиком,
+     * поэтому записи сохраняются по одной, каждая в своей транзакции, чтобы отказ получила только конфликтная.
+     */
+    private void saveOneByOne(List<Integer> indexes, List<User> users, List<UserBulkResultDto> results) {
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            user.setId(null);
+            UserBulkResultDto.UserBulkResultDtoBuilder result = UserBulkResultDto.builder().index(indexes.get(i));
+            try {
+                results.add(result.user(userService.saveUser(mapper.toUserDTO(user))).build());
+            } catch (EmailConflictException e) {
+                results.add(result.error(e.getMessage()).build());
+            } catch (DataIntegrityViolationException e) {
+                results.add(result.error(CONSTRAINT_VIOLATION).build());
+            }
+        }
+    }
+
+    private String validate(UserDto user) {
+        Set<ConstraintViolation<UserDto>> violations = validator.validate(user, Default.class, Create.class);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+}
@@ -1,10 +1,15 @@
 package ru.practicum.shareit.user.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.exception.EmailConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.VersionConflictException;
+import ru.practicum.shareit.pagination.IdCursor;
+import ru.practicum.shareit.pagination.OffsetPageRequest;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
@@ -18,26 +23,66 @@ import java.util.Objects;
 public class UserService {
     private static final String NOT_FOUND_USER = "Не найден пользователь с id = ";
     private static final String EMAIL_CONFLICT = "Данный email уже занят пользователем";
+    private static final String EMAIL_CONSTRAINT = "UQ_USER_EMAIL";
+    private static final String VERSION_CONFLICT = "Пользователь уже изменён, ожидаемая версия: ";
+    private static final int MAX_PATCH_ATTEMPTS = 3;
     private final UserRepository repository;
     private final UserMapper mapper;
+    private final UserExistenceCache existenceCache;
 
     @Autowired
-    public UserService(UserRepository repository, UserMapper mapper) {
+    public UserService(UserRepository repository, UserMapper mapper, UserExistenceCache existenceCache) {
         this.repository = repository;
         this.mapper = mapper;
+        this.existenceCache = existenceCache;
     }
 
     public UserDto saveUser(UserDto userDTO) {
-        return mapper.toUserDTO(repository.save(mapper.toUser(userDTO)));
+        User user = saveChecked(mapper.toUser(userDTO));
+        existenceCache.markExisting(user.getId());
+        return mapper.toUserDTO(user);
     }
 
-    public List<UserDto> getAllUsers() {
-        return mapper.mapUserListToUserDtoList(repository.findAll());
+    /**
+     * Страница пользователей по возрастанию id, начиная после курсора (или с начала, если курсора нет).
+     */
+    public List<UserDto> getUsersAfter(IdCursor cursor, int size) {
+        int afterId = cursor == null ? 0 : cursor.getId();
+        return mapper.mapUserListToUserDtoList(repository.findByIdGreaterThanOrderById(afterId,
+                OffsetPageRequest.of(0, size)));
     }
 
-    public UserDto updateUser(UserDto userDto, Integer id) {
-        User user = update(id, userDto);
-        return mapper.toUserDTO(repository.save(user));
+    /**
+     * Меняет только переданные непустые поля одним {@code UPDATE} с проверкой версии, без слияния всей сущности.
+     * Ответ собирается из прочитанного пользователя и переданных полей. Без {@code version} в патче
+     * сверяется прочитанная версия; если пользователя успели изменить, он перечитывается и обновление повторяется.
+     */
+    @Transactional
+    public UserDto updateUser(UserDto patch, Integer id) {
+        String name = blankToNull(patch.getName());
+        String email = blankToNull(patch.getEmail());
+        for (int attempt = 1; ; attempt++) {
+            User user = repository.findById(id).orElseThrow(() -> new NotFoundException(NOT_FOUND_USER + id));
+            if (name == null && email == null) {
+                return mapper.toUserDTO(user);
+            }
+            long expectedVersion = Objects.requireNonNullElse(patch.getVersion(), user.getVersion());
+            int updated;
+            try {
+                updated = repository.patch(id, name, email, expectedVersion);
+            } catch (DataIntegrityViolationException e) {
+                throw translateEmailConflict(e);
+            }
+            if (updated == 1) {
+                user.setName(Objects.requireNonNullElse(name, user.getName()));
+                user.setEmail(Objects.requireNonNullElse(email, user.getEmail()));
+                user.setVersion(expectedVersion + 1);
+                return mapper.toUserDTO(user);
+            }
+            if (patch.getVersion() != null || attempt == MAX_PATCH_ATTEMPTS) {
+                throw new VersionConflictException(VERSION_CONFLICT + expectedVersion);
+            }
+        }
     }
 
     public UserDto getUser(Integer id) {
@@ -46,33 +91,30 @@ public class UserService {
 
     public void deleteUser(Integer id) {
         repository.deleteById(id);
+        existenceCache.evict(id);
     }
 
-    public User update(Integer id, UserDto patch) {
-        patch.setId(id);
-        if (!checkFreeEmail(mapper.toUser(patch)))
-            throw new EmailConflictException(EMAIL_CONFLICT);
-        UserDto old = getUser(id);
-        String name = patch.getName();
-        if (name != null && !name.isBlank()) {
-            old.setName(name);
-        }
-        String oldEmail = old.getEmail();
-        String newEmail = patch.getEmail();
-        if (newEmail != null && !newEmail.isBlank() && !oldEmail.equals(newEmail)) {
-            old.setEmail(newEmail);
+    /**
+     * Сохраняет пользователя сразу с flush, чтобы нарушение UQ_USER_EMAIL всплыло здесь же
+     * и вернулось как конфликт email, а не как 500 при коммите.
+     */
+    private User saveChecked(User user) {
+        try {
+            return repository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw translateEmailConflict(e);
         }
-        return mapper.toUser(old);
     }
 
-    private boolean checkFreeEmail(User user) {
-        List<User> list = repository.findAll();
-        if (user.getEmail() == null)
-            return true;
-        for (User check: list) {
-            if (user.getEmail().equals(check.getEmail()) && !Objects.equals(check.getId(), user.getId()))
-                return false;
+    private RuntimeException translateEmailConflict(DataIntegrityViolationException e) {
+        String message = e.getMostSpecificCause().getMessage();
+        if (message != null && message.toUpperCase().contains(EMAIL_CONSTRAINT)) {
+            return new EmailConflictException(EMAIL_CONFLICT);
         }
-        return true;
+        return e;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
     }
 }
@@ -0,0 +1,67 @@
+CREATE SEQUENCE users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE requests_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE bookings_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE comments_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE users (
+    user_id BIGINT NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    email VARCHAR(512) NOT NULL,
+    CONSTRAINT pk_user PRIMARY KEY (user_id),
+    CONSTRAINT UQ_USER_EMAIL UNIQUE (email)
+);
+
+CREATE TABLE requests (
+    request_id BIGINT NOT NULL,
+    description VARCHAR(512) NOT NULL,
+    requestor BIGINT REFERENCES users (user_id) NOT NULL,
+    created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    PRIMARY KEY (request_id)
+);
+
+CREATE TABLE items (
+    item_id BIGINT NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    description VARCHAR(512) NOT NULL,
+    available BOOLEAN NOT NULL,
+    owner BIGINT REFERENCES users (user_id) NOT NULL,
+    request_id BIGINT REFERENCES requests (request_id) NULL,
+    PRIMARY KEY (item_id)
+);
+
+CREATE TABLE bookings (
+    booking_id BIGINT NOT NULL,
+    start_time TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    end_time TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    item_id BIGINT REFERENCES items (item_id) NOT NULL,
+    booker_id BIGINT REFERENCES users (user_id) NOT NULL,
+    status VARCHAR(64) NOT NULL,
+    PRIMARY KEY (booking_id)
+);
+
+CREATE TABLE comments (
+    comment_id BIGINT NOT NULL,
+    text VARCHAR(512) NOT NULL,
+    item_id BIGINT REFERENCES items (item_id) NOT NULL,
+    author_id BIGINT REFERENCES users (user_id) NOT NULL,
+    created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    PRIMARY KEY (comment_id)
+);
+
+CREATE TABLE item_booking_summary (
+    item_id BIGINT REFERENCES items (item_id) ON DELETE CASCADE NOT NULL,
+    last_booking_id BIGINT NULL,
+    last_booker_id BIGINT NULL,
+    last_start TIMESTAMP WITHOUT TIME ZONE NULL,
+    last_end TIMESTAMP WITHOUT TIME ZONE NULL,
+    next_booking_id BIGINT NULL,
+    next_booker_id BIGINT NULL,
+    next_start TIMESTAMP WITHOUT TIME ZONE NULL,
+    next_end TIMESTAMP WITHOUT TIME ZONE NULL,
+    active_bookings INTEGER NOT NULL,
+    refresh_at TIMESTAMP WITHOUT TIME ZONE NULL,
+    PRIMARY KEY (item_id)
+);
+
+CREATE INDEX ix_item_booking_summary_refresh_at ON item_booking_summary (refresh_at);
@@ -0,0 +1,7 @@
+CREATE INDEX ix_items_owner ON items (owner);
+CREATE INDEX ix_items_request ON items (request_id);
+CREATE INDEX ix_comments_item ON comments (item_id, created);
+CREATE INDEX ix_bookings_booker_start ON bookings (booker_id, start_time DESC, booking_id DESC);
+CREATE INDEX ix_bookings_item_start ON bookings (item_id, start_time DESC, booking_id DESC);
+CREATE INDEX ix_requests_requestor_created ON requests (requestor, created DESC);
+CREATE INDEX ix_requests_created ON requests (created DESC, request_id DESC);
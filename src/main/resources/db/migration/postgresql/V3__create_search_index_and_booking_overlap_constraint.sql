@@ -0,0 +1,8 @@
+CREATE INDEX ix_items_search ON items
+    USING GIN (to_tsvector('simple', name || ' ' || description));
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE bookings ADD CONSTRAINT ex_bookings_item_period
+    EXCLUDE USING gist (item_id WITH =, tsrange(start_time, end_time) WITH &&)
+    WHERE (status IN ('APPROVED', 'WAITING'));
@@ -0,0 +1,236 @@
+package ru.practicum.shareit;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.repository.BookingQuery;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryService;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.repository.RequestRepository;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверяет через EXPLAIN, что запросы основных путей доступа идут по индексам схемы
+ * из миграций, а не полным просмотром таблицы. Проверяется SQL, который Hibernate генерирует
+ * при вызове методов репозиториев: его перехватывает {@link SqlRecorder}. Данные засеваются
+ * один раз на класс и коммитятся, чтобы ANALYZE собрал по ним статистику.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ru.practicum.shareit.IndexUsageTest$SqlRecorder")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class IndexUsageTest {
+    private static final int USERS = 50;
+    private static final int REQUESTS = 100;
+    private static final int ITEMS = 200;
+    private static final int BOOKINGS = 4000;
+    private static final int COMMENTS = 1000;
+    private static final String TABLE_SCAN = "tableScan";
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private RequestRepository requestRepository;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    public void seed() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 1; i <= USERS; i++) {
+            users.add(new Object[]{i, "user " + i, "user" + i + "@email.com"});
+        }
+        jdbcTemplate.batchUpdate("insert into users (user_id, name, email) values (?, ?, ?)", users);
+
+        List<Object[]> requests = new ArrayList<>();
+        for (int i = 1; i <= REQUESTS; i++) {
+            requests.add(new Object[]{i, "request " + i, i % USERS + 1, Timestamp.valueOf(NOW.minusHours(i))});
+        }
+        jdbcTemplate.batchUpdate("insert into requests (request_id, description, requestor, created) " +
+                "values (?, ?, ?, ?)", requests);
+
+        List<Object[]> items = new ArrayList<>();
+        for (int i = 1; i <= ITEMS; i++) {
+            items.add(new Object[]{i, "item " + i, "description " + i, true, i % USERS + 1,
+                    i % 4 == 0 ? i % REQUESTS + 1 : null});
+        }
+        jdbcTemplate.batchUpdate("insert into items (item_id, name, description, available, owner, request_id) " +
+                "values (?, ?, ?, ?, ?, ?)", items);
+
+        List<Object[]> bookings = new ArrayList<>();
+        for (int i = 1; i <= BOOKINGS; i++) {
+            LocalDateTime start = NOW.plusDays(i / ITEMS);
+            bookings.add(new Object[]{i, Timestamp.valueOf(start), Timestamp.valueOf(start.plusHours(12)),
+                    i % ITEMS + 1, (i * 7) % USERS + 1, i % 3 == 0 ? "REJECTED" : "APPROVED"});
+        }
+        jdbcTemplate.batchUpdate("insert into bookings (booking_id, start_time, end_time, item_id, booker_id, status) " +
+                "values (?, ?, ?, ?, ?, ?)", bookings);
+
+        List<Object[]> comments = new ArrayList<>();
+        for (int i = 1; i <= COMMENTS; i++) {
+            comments.add(new Object[]{i, "comment " + i, i % ITEMS + 1, i % USERS + 1,
+                    Timestamp.valueOf(NOW.minusMinutes(i))});
+        }
+        jdbcTemplate.batchUpdate("insert into comments (comment_id, text, item_id, author_id, created) " +
+                "values (?, ?, ?, ?, ?)", comments);
+
+        dropForeignKeys();
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    /**
+     * H2 создаёт собственный индекс для каждого внешнего ключа и выбирает его вместо индексов из V2,
+     * PostgreSQL таких индексов не создаёт. Внешние ключи удаляются вместе с их индексами, чтобы
+     * в плане остались только индексы миграций и пропавший индекс V2 превращался в полный просмотр.
+     */
+    private void dropForeignKeys() {
+        List<Map<String, Object>> foreignKeys = jdbcTemplate.queryForList(
+                "select table_name, constraint_name from information_schema.table_constraints " +
+                        "where constraint_schema = 'PUBLIC' and constraint_type = 'FOREIGN KEY'");
+        for (Map<String, Object> foreignKey : foreignKeys) {
+            jdbcTemplate.execute("alter table " + foreignKey.get("TABLE_NAME") +
+                    " drop constraint " + foreignKey.get("CONSTRAINT_NAME"));
+        }
+    }
+
+    @AfterAll
+    public void cleanUp() {
+        jdbcTemplate.update("delete from comments");
+        jdbcTemplate.update("delete from bookings");
+        jdbcTemplate.update("delete from items");
+        jdbcTemplate.update("delete from requests");
+        jdbcTemplate.update("delete from users");
+    }
+
+    @Test
+    public void bookingsByBookerUseIndex() {
+        assertIndexed("ix_bookings_booker_start", () -> bookingRepository.findDetailed(BookingQuery.builder()
+                .role(BookingQuery.Role.BOOKER)
+                .userId(7)
+                .now(NOW)
+                .size(20)
+                .build()));
+    }
+
+    @Test
+    public void bookingsByItemOwnerUseIndex() {
+        assertIndexed("ix_items_owner", () -> bookingRepository.findDetailed(BookingQuery.builder()
+                .role(BookingQuery.Role.OWNER)
+                .userId(7)
+                .now(NOW)
+                .size(20)
+                .build()));
+    }
+
+    @Test
+    public void activeIntervalsUseIndex() {
+        assertIndexed("ix_bookings_item_start", () -> bookingRepository.findActiveIntervals(List.of(1, 2, 3),
+                ItemBookingSummaryService.ACTIVE_STATUSES, NOW));
+    }
+
+    @Test
+    public void overlapCheckUsesIndex() {
+        assertIndexed("ix_bookings_item_start", () -> bookingRepository.existsOverlapping(3, 0, ItemBookingSummaryService.ACTIVE_STATUSES,
+                NOW.plusDays(3), NOW.plusDays(4)));
+    }
+
+    @Test
+    public void itemsByOwnerUseIndex() {
+        assertIndexed("ix_items_owner", () -> itemRepository.findAllByOwnerOrderByNextBooking(7, PageRequest.of(0, 20)));
+    }
+
+    @Test
+    public void itemsByRequestUseIndex() {
+        assertIndexed("ix_items_request", () -> itemRepository.findAllByRequestIdIn(List.of(1, 2, 3)));
+    }
+
+    @Test
+    public void commentsByItemUseIndex() {
+        assertIndexed("ix_comments_item", () -> commentRepository.findAllByItemIdIn(List.of(1, 2, 3)));
+    }
+
+    @Test
+    public void requestsByRequestorUseIndex() {
+        assertIndexed("ix_requests_requestor_created", () -> requestRepository.findRequestByRequestorOrderByCreatedDesc(7));
+    }
+
+    /**
+     * Вызывает метод репозитория и проверяет EXPLAIN каждого SQL, который при этом сгенерировал Hibernate:
+     * ни один не просматривает таблицу целиком, и хотя бы один идёт по индексу {@code index} из V2.
+     * Параметры привязываются как NULL: EXPLAIN в H2 строит план без выполнения запроса.
+     */
+    private void assertIndexed(String index, Runnable repositoryCall) {
+        SqlRecorder.STATEMENTS.clear();
+        repositoryCall.run();
+        List<String> statements = new ArrayList<>(SqlRecorder.STATEMENTS);
+        assertFalse(statements.isEmpty(), "репозиторий не выполнил ни одного запроса");
+        List<String> plans = new ArrayList<>();
+        for (String sql : statements) {
+            String plan = explain(sql);
+            assertFalse(plan.contains(TABLE_SCAN), "полный просмотр таблицы в плане:\n" + plan);
+            plans.add(plan);
+        }
+        String allPlans = String.join("\n", plans);
+        assertTrue(allPlans.toUpperCase().contains("PUBLIC." + index.toUpperCase()),
+                "индекс " + index + " не используется в плане:\n" + allPlans);
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.execute("EXPLAIN " + sql, (PreparedStatement statement) -> {
+            int parameters = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                statement.setNull(i, Types.NULL);
+            }
+            List<String> plan = new ArrayList<>();
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    plan.add(rows.getString(1));
+                }
+            }
+            return String.join("\n", plan);
+        });
+    }
+
+    /**
+     * Запоминает SQL, который Hibernate отправляет в базу.
+     */
+    public static class SqlRecorder implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
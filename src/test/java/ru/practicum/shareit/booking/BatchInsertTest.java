@@ -0,0 +1,115 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingPostDto;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Сравнивает пакетное и поштучное создание бронирований по числу подготовленных JDBC-выражений
+ * и по времени. Время только пишется в лог, проверяется число выражений.
+ */
+@Slf4j
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class BatchInsertTest {
+    private static final int BOOKINGS = 200;
+
+    private final BookingService bookingService;
+    private final ItemService itemService;
+    private final UserService userService;
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final EntityManagerFactory entityManagerFactory;
+
+    private Integer itemId;
+    private Integer bookerId;
+    private Statistics statistics;
+
+    @BeforeEach
+    public void beforeEach() {
+        UserDto owner = userService.saveUser(UserDto.builder().name("owner").email("owner@email.com").build());
+        UserDto booker = userService.saveUser(UserDto.builder().name("booker").email("booker@email.com").build());
+        itemId = itemService.saveItem(owner.getId(), ItemDto.builder()
+                .name("item")
+                .description("description")
+                .available(true)
+                .build()).getId();
+        bookerId = booker.getId();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    public void afterEach() {
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void batchInsertShouldUseFewStatements() {
+        List<BookingPostDto> dtos = generateDtos(LocalDateTime.now().plusDays(1).withNano(0));
+
+        statistics.clear();
+        long started = System.nanoTime();
+        List<BookingBatchResultDto> results = bookingService.createBookings(dtos, bookerId);
+        long batchNanos = System.nanoTime() - started;
+        long batchStatements = statistics.getPrepareStatementCount();
+
+        assertEquals(BOOKINGS, results.stream().filter(result -> result.getError() == null).count());
+        assertEquals(BOOKINGS, bookingRepository.count());
+
+        List<BookingPostDto> singles = generateDtos(LocalDateTime.now().plusYears(1).withNano(0));
+        statistics.clear();
+        started = System.nanoTime();
+        for (BookingPostDto dto : singles) {
+            bookingService.createBooking(dto, bookerId);
+        }
+        long singleNanos = System.nanoTime() - started;
+        long singleStatements = statistics.getPrepareStatementCount();
+
+        log.info("{} бронирований: пакетом {} мс, {} выражений; по одному {} мс, {} выражений",
+                BOOKINGS, batchNanos / 1_000_000, batchStatements, singleNanos / 1_000_000, singleStatements);
+        assertTrue(batchStatements * 5 < BOOKINGS,
+                "ожидалась пакетная вставка, выражений: " + batchStatements);
+        assertTrue(batchStatements * 10 < singleStatements);
+    }
+
+    private List<BookingPostDto> generateDtos(LocalDateTime base) {
+        List<BookingPostDto> dtos = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            dtos.add(BookingPostDto.builder()
+                    .itemId(itemId)
+                    .start(base.plusHours(2L * i))
+                    .end(base.plusHours(2L * i + 1))
+                    .build());
+        }
+        return dtos;
+    }
+}
@@ -9,17 +9,21 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.booking.controller.BookingController;
+import ru.practicum.shareit.booking.dto.BookerDto;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDetailedDto;
+import ru.practicum.shareit.booking.dto.BookingItemDto;
 import ru.practicum.shareit.booking.dto.BookingPostDto;
 import ru.practicum.shareit.booking.dto.BookingPostResponseDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.exception.InvalidBookingException;
 import ru.practicum.shareit.booking.service.BookingService;
-import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.pagination.PageCursor;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.List;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.*;
@@ -67,12 +71,52 @@ public class BookingControllerTest {
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id", is(responseDto.getId()),  Integer.class))
-                .andExpect(jsonPath("$.item", is(responseDto.getItem()),  Item.class));
+                .andExpect(jsonPath("$.item.id", is(responseDto.getItem().getId())))
+                .andExpect(jsonPath("$.item.name", is(responseDto.getItem().getName())));
 
         verify(bookingService, times(1))
                 .createBooking(any(BookingPostDto.class), any(Integer.class));
     }
 
+    @Test
+    public void createBookingShouldReturnBadRequestWhenPeriodIsTaken() throws Exception {
+        BookingPostDto inputDto = generateInputDto();
+
+        when(bookingService.createBooking(any(BookingPostDto.class), any(Integer.class)))
+                .thenThrow(new InvalidBookingException("Период бронирования занят"));
+
+        mvc.perform(post("/bookings")
+                        .content(mapper.writeValueAsString(inputDto))
+                        .header(USER_ID_HEADER, ID)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void createBookingsTest() throws Exception {
+        BookingPostDto inputDto = generateInputDto();
+        List<BookingBatchResultDto> results = List.of(
+                BookingBatchResultDto.builder().index(0).booking(generatePostResponseDto(ID, inputDto)).build(),
+                BookingBatchResultDto.builder().index(1).error("error").build());
+
+        when(bookingService.createBookings(anyList(), any(Integer.class)))
+                .thenReturn(results);
+
+        mvc.perform(post("/bookings/batch")
+                        .content(mapper.writeValueAsString(List.of(inputDto, inputDto)))
+                        .header(USER_ID_HEADER, ID)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].booking.id", is(ID)))
+                .andExpect(jsonPath("$[1].error", is("error")));
+
+        verify(bookingService, times(1)).createBookings(anyList(), any(Integer.class));
+    }
+
     @Test
     public void patchBookingTest() throws Exception {
         BookingResponseDto responseDto = generateResponseDto(ID);
@@ -108,7 +152,7 @@ public class BookingControllerTest {
 
     @Test
     public void findAllBookingsTest() throws Exception {
-        when(bookingService.findAllByBooker(any(String.class), any(Integer.class), any(Integer.class), any(Integer.class)))
+        when(bookingService.findAllByBooker(any(String.class), any(Integer.class), any(), anyInt(), any(), anyInt()))
                 .thenReturn(new ArrayList<>());
 
         mvc.perform(get("/bookings")
@@ -120,13 +164,13 @@ public class BookingControllerTest {
                 .andExpect(content().json("[]"));
 
         verify(bookingService, times(1))
-                .findAllByBooker(any(String.class), any(Integer.class), any(Integer.class), any(Integer.class));
+                .findAllByBooker(any(String.class), any(Integer.class), any(), anyInt(), any(), anyInt());
     }
 
     @Test
     public void findAllTest() throws Exception {
         when(bookingService
-                .findAllByItemOwner(any(String.class), any(Integer.class), any(Integer.class), any(Integer.class)))
+                .findAllByItemOwner(any(String.class), any(Integer.class), any(), anyInt(), any(), anyInt()))
                 .thenReturn(new ArrayList<>());
 
         mvc.perform(get("/bookings/owner")
@@ -137,7 +181,58 @@ public class BookingControllerTest {
                 .andExpect(content().json("[]"));
 
         verify(bookingService, times(1))
-                .findAllByItemOwner(any(String.class), any(Integer.class), any(Integer.class), any(Integer.class));
+                .findAllByItemOwner(any(String.class), any(Integer.class), any(), anyInt(), any(), anyInt());
+    }
+
+    @Test
+    public void findAllBookingsWithTotalTest() throws Exception {
+        when(bookingService.findAllByBooker(any(String.class), any(Integer.class), any(), anyInt(), any(), anyInt()))
+                .thenReturn(new ArrayList<>());
+        when(bookingService.countAllByBooker(any(String.class), any(Integer.class), any()))
+                .thenReturn(42L);
+
+        mvc.perform(get("/bookings")
+                        .header(USER_ID_HEADER, ID)
+                        .param("withTotal", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(BookingController.TOTAL_COUNT_HEADER, "42"));
+
+        verify(bookingService, never()).countAllByItemOwner(any(String.class), any(Integer.class), any());
+    }
+
+    @Test
+    public void findAllBookingsSendsCursorOnlyWhenNextPageExistsTest() throws Exception {
+        when(bookingService.findAllByBooker(any(String.class), any(Integer.class), any(), anyInt(), any(), eq(3)))
+                .thenReturn(List.of(generateDetailedDto(3), generateDetailedDto(2), generateDetailedDto(1)));
+        when(bookingService.findAllByBooker(any(String.class), any(Integer.class), any(), anyInt(), any(), eq(4)))
+                .thenReturn(List.of(generateDetailedDto(3), generateDetailedDto(2), generateDetailedDto(1)));
+
+        mvc.perform(get("/bookings")
+                        .header(USER_ID_HEADER, ID)
+                        .param(SIZE_PARAM, "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(2)))
+                .andExpect(header().string(PageCursor.NEXT_CURSOR_HEADER, PageCursor.of(START_DATE, 2).encode()));
+
+        mvc.perform(get("/bookings")
+                        .header(USER_ID_HEADER, ID)
+                        .param(SIZE_PARAM, "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(3)))
+                .andExpect(header().doesNotExist(PageCursor.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    public void findAllBookingsCapsPageSizeTest() throws Exception {
+        when(bookingService.findAllByItemOwner(any(String.class), any(Integer.class), any(), anyInt(), any(), anyInt()))
+                .thenReturn(new ArrayList<>());
+
+        mvc.perform(get("/bookings/owner")
+                        .header(USER_ID_HEADER, ID)
+                        .param(SIZE_PARAM, String.valueOf(Integer.MAX_VALUE)))
+                .andExpect(status().isOk());
+
+        verify(bookingService).findAllByItemOwner(any(String.class), any(Integer.class), any(), anyInt(), any(), eq(101));
     }
 
     private BookingPostDto generateInputDto() {
@@ -150,22 +245,17 @@ public class BookingControllerTest {
         return BookingDetailedDto.builder()
                 .id(id)
                 .name("name")
-                .booker(new User())
-                .item(new Item())
+                .booker(new BookerDto(ID, "booker"))
+                .item(new BookingItemDto(ID, "name"))
                 .start(START_DATE)
                 .end(END_DATE)
                 .build();
     }
 
     private BookingPostResponseDto generatePostResponseDto(Integer id, BookingPostDto inputDto) {
-        Item item = new Item();
-        item.setId(ID);
-        item.setName("item");
-        item.setDescription("item description");
-        item.setAvailable(true);
         return BookingPostResponseDto.builder()
                 .id(id)
-                .item(new Item())
+                .item(new BookingItemDto(ID, "item"))
                 .start(START_DATE)
                 .end(END_DATE)
                 .build();
@@ -175,8 +265,8 @@ public class BookingControllerTest {
         return BookingResponseDto.builder()
                 .id(id)
                 .name("Item name")
-                .booker(new User())
-                .item(new Item())
+                .booker(new BookerDto(ID, "booker"))
+                .item(new BookingItemDto(ID, "Item name"))
                 .build();
     }
 }
\ No newline at end of file
@@ -5,19 +5,21 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.booking.dto.BookingDetailedDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.booking.repository.BookingQuery;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -65,139 +67,176 @@ public class BookingRepositoryTest {
     }
 
     @Test
-    public void findByBookerIdAndEndIsBeforeTest() {
-        Page<Booking> result = bookingRepository
-                .findByBookerIdAndEndIsBefore(booker.getId(), LocalDateTime.now().plusDays(10), Pageable.unpaged());
+    public void findLastAndNextBookingsTest() {
+        Booking pastBooking = bookingRepository.save(Booking.builder()
+                .start(start.minusDays(10))
+                .end(start.minusDays(9))
+                .item(item)
+                .booker(booker)
+                .status(bookingStatus)
+                .build());
+        bookingRepository.save(Booking.builder()
+                .start(start.minusDays(1))
+                .end(start)
+                .item(item)
+                .booker(booker)
+                .status(BookingStatus.REJECTED)
+                .build());
 
-        assertNotNull(result);
-        assertFalse(result.isEmpty());
-        assertEquals(booking, result.getContent().get(0));
-    }
-
-    @Test
-    public void findByBookerIdAndStartIsAfterTest() {
-        Page<Booking> result = bookingRepository
-                .findByBookerIdAndStartIsAfter(booker.getId(), LocalDateTime.now().plusDays(1), Pageable.unpaged());
+        List<Booking> result = bookingRepository
+                .findLastAndNextBookings(List.of(item.getId()), LocalDateTime.now(), BookingStatus.REJECTED);
 
         assertNotNull(result);
-        assertFalse(result.isEmpty());
-        assertEquals(booking, result.getContent().get(0));
+        assertEquals(2, result.size());
+        assertEquals(booking, result.get(0));
+        assertEquals(pastBooking, result.get(1));
     }
 
     @Test
-    public void findByBookerIdAndStatusTest() {
-        Page<Booking> result = bookingRepository
-                .findByBookerIdAndStatus(booker.getId(), bookingStatus, Pageable.unpaged());
+    void findBookingsForAddCommentsTest() {
+        List<Booking> result = bookingRepository
+                .findBookingsForAddComments(item.getId(), booker.getId(), end.plusDays(1));
 
         assertNotNull(result);
         assertFalse(result.isEmpty());
-        assertEquals(booking, result.getContent().get(0));
+        assertEquals(booking, result.get(0));
     }
 
     @Test
-    public void findByBookerIdTest() {
-        Page<Booking> result = bookingRepository.findByBookerId(booker.getId(), Pageable.unpaged());
-
-        assertNotNull(result);
-        assertFalse(result.isEmpty());
-        assertEquals(booking, result.getContent().get(0));
+    public void findByBookerStatesTest() {
+        assertEquals(List.of(booking.getId()), ids(bookingRepository.findDetailed(bookerQuery(State.PAST)
+                .now(LocalDateTime.now().plusDays(10)).build())));
+        assertEquals(List.of(booking.getId()), ids(bookingRepository.findDetailed(bookerQuery(State.FUTURE).build())));
+        assertEquals(List.of(booking.getId()), ids(bookingRepository.findDetailed(bookerQuery(State.CURRENT)
+                .now(start.plusDays(1)).build())));
+        assertEquals(List.of(booking.getId()), ids(bookingRepository.findDetailed(bookerQuery(State.ALL).build())));
+        assertTrue(bookingRepository.findDetailed(bookerQuery(State.WAITING).build()).isEmpty());
     }
 
     @Test
-    public void findBookingByItemOwnerAndStatusTest() {
-        Page<Booking> result = bookingRepository
-                .findBookingByItemOwnerAndStatus(itemOwner.getId(), bookingStatus, Pageable.unpaged());
-
-        assertNotNull(result);
-        assertFalse(result.isEmpty());
-        assertEquals(booking, result.getContent().get(0));
+    public void findByItemOwnerStatesTest() {
+        Booking waiting = bookingRepository.save(Booking.builder()
+                .start(end.plusDays(1))
+                .end(end.plusDays(2))
+                .item(item)
+                .booker(booker)
+                .status(BookingStatus.WAITING)
+                .build());
+
+        List<BookingDetailedDto> result = bookingRepository.findDetailed(ownerQuery()
+                .state(State.WAITING)
+                .state(State.FUTURE)
+                .build());
+        List<BookingDetailedDto> otherItem = bookingRepository.findDetailed(ownerQuery()
+                .itemId(item.getId() + 1)
+                .build());
+
+        assertEquals(List.of(waiting.getId()), ids(result));
+        assertTrue(otherItem.isEmpty());
+        assertTrue(bookingRepository.findDetailed(ownerQuery().state(State.REJECTED).build()).isEmpty());
     }
 
     @Test
-    public void findBookingByItemOwnerAndEndIsBeforeTest() {
-        Page<Booking> result = bookingRepository
-                .findBookingByItemOwnerAndEndIsBefore(
-                        itemOwner.getId(), LocalDateTime.now().plusDays(30), Pageable.unpaged());
-
-        assertNotNull(result);
-        assertFalse(result.isEmpty());
-        assertEquals(booking, result.getContent().get(0));
+    public void findPagesTest() {
+        Booking sameStart = bookingRepository.save(Booking.builder()
+                .start(start)
+                .end(end)
+                .item(item)
+                .booker(booker)
+                .status(BookingStatus.WAITING)
+                .build());
+        Booking earlier = bookingRepository.save(Booking.builder()
+                .start(start.minusDays(1))
+                .end(start)
+                .item(item)
+                .booker(booker)
+                .status(bookingStatus)
+                .build());
+
+        List<BookingDetailedDto> firstPage = bookingRepository.findDetailed(bookerQuery(State.ALL).size(2).build());
+        BookingDetailedDto last = firstPage.get(firstPage.size() - 1);
+        List<BookingDetailedDto> secondPage = bookingRepository.findDetailed(bookerQuery(State.ALL)
+                .cursor(PageCursor.of(last.getStart(), last.getId()))
+                .size(2)
+                .build());
+        List<BookingDetailedDto> offsetPage = bookingRepository.findDetailed(bookerQuery(State.ALL).offset(1).size(2).build());
+
+        assertEquals(List.of(sameStart.getId(), booking.getId()), ids(firstPage));
+        assertEquals(List.of(earlier.getId()), ids(secondPage));
+        assertEquals(List.of(booking.getId(), earlier.getId()), ids(offsetPage));
     }
 
     @Test
-    public void findBookingByItemOwnerAndStartIsAfterTest() {
-        Page<Booking> result = bookingRepository
-                .findBookingByItemOwnerAndStartIsAfter(itemOwner.getId(), LocalDateTime.now(), Pageable.unpaged());
-
-        assertNotNull(result);
-        assertFalse(result.isEmpty());
-        assertEquals(booking, result.getContent().get(0));
+    public void countTest() {
+        assertEquals(1, bookingRepository.countMatching(bookerQuery(State.FUTURE).build()));
+        assertEquals(0, bookingRepository.countMatching(bookerQuery(State.PAST).build()));
+        assertEquals(1, bookingRepository.countMatching(ownerQuery().build()));
+        assertEquals(0, bookingRepository.countMatching(ownerQuery().userId(booker.getId()).build()));
     }
 
     @Test
-    public void findBookingByItemOwnerTest() {
-        Page<Booking> result = bookingRepository
-                .findBookingByItemOwner(itemOwner.getId(), Pageable.unpaged());
-
-        assertNotNull(result);
-        assertFalse(result.isEmpty());
-        assertEquals(booking, result.getContent().get(0));
+    public void updateStatusTest() {
+        Booking waiting = bookingRepository.save(Booking.builder()
+                .start(end.plusDays(1))
+                .end(end.plusDays(2))
+                .item(item)
+                .booker(booker)
+                .status(BookingStatus.WAITING)
+                .build());
+
+        int byBooker = bookingRepository
+                .updateStatus(waiting.getId(), booker.getId(), BookingStatus.APPROVED, BookingStatus.WAITING);
+        int byOwner = bookingRepository
+                .updateStatus(waiting.getId(), itemOwner.getId(), BookingStatus.APPROVED, BookingStatus.WAITING);
+        int again = bookingRepository
+                .updateStatus(waiting.getId(), itemOwner.getId(), BookingStatus.REJECTED, BookingStatus.WAITING);
+
+        assertEquals(0, byBooker);
+        assertEquals(1, byOwner);
+        assertEquals(0, again);
+        assertEquals(BookingStatus.APPROVED,
+                bookingRepository.findWithItemAndBookerById(waiting.getId()).orElseThrow().getStatus());
     }
 
     @Test
-    public void findBookingByItemIdAndEndBeforeTest() {
-        List<Booking> result = bookingRepository
-                .findBookingByItemIdAndStartBefore(item.getId(), LocalDateTime.now().plusDays(30), Sort.unsorted());
-
-        assertNotNull(result);
-        assertFalse(result.isEmpty());
-        assertEquals(booking, result.get(0));
-    }
+    public void findAccessibleByIdTest() {
+        User stranger = userRepository.save(new User(null, "user 3", "user3@email.com"));
 
-    @Test
-    public void findBookingByItemIdAndStartAfterTest() {
-        List<Booking> result = bookingRepository
-                .findBookingByItemIdAndStartAfter(item.getId(), LocalDateTime.now(), Sort.unsorted());
+        BookingDetailedDto byBooker = bookingRepository.findDetailedById(booking.getId(), booker.getId()).orElseThrow();
+        BookingDetailedDto byOwner = bookingRepository.findDetailedById(booking.getId(), itemOwner.getId()).orElseThrow();
 
-        assertNotNull(result);
-        assertFalse(result.isEmpty());
-        assertEquals(booking, result.get(0));
+        assertEquals(booking.getId(), byBooker.getId());
+        assertEquals(booker.getId(), byBooker.getBooker().getId());
+        assertEquals(item.getName(), byBooker.getItem().getName());
+        assertEquals(booking.getId(), byOwner.getId());
+        assertTrue(bookingRepository.findDetailedById(booking.getId(), stranger.getId()).isEmpty());
     }
 
-    @Test
-    public void findByBookerIdCurrentTest() {
-        Page<Booking> result = bookingRepository
-                .findByBookerIdCurrent(booker.getId(), start.plusDays(1), Pageable.unpaged());
-
-        assertNotNull(result);
-        assertFalse(result.isEmpty());
-        assertEquals(booking, result.getContent().get(0));
+    @AfterEach
+    public void afterEach() {
+        userRepository.deleteAll();
+        itemRepository.deleteAll();
+        bookingRepository.deleteAll();
     }
 
-    @Test
-    void findBookingsByItemOwnerCurrentTest() {
-        Page<Booking> result = bookingRepository
-                .findBookingsByItemOwnerCurrent(itemOwner.getId(), end.minusDays(5), Pageable.unpaged());
-
-        assertNotNull(result);
-        assertFalse(result.isEmpty());
-        assertEquals(booking, result.getContent().get(0));
+    private BookingQuery.BookingQueryBuilder bookerQuery(State state) {
+        return BookingQuery.builder()
+                .role(BookingQuery.Role.BOOKER)
+                .userId(booker.getId())
+                .state(state)
+                .now(LocalDateTime.now())
+                .size(10);
     }
 
-    @Test
-    void findBookingsForAddCommentsTest() {
-        List<Booking> result = bookingRepository
-                .findBookingsForAddComments(item.getId(), booker.getId(), end.plusDays(1));
-
-        assertNotNull(result);
-        assertFalse(result.isEmpty());
-        assertEquals(booking, result.get(0));
+    private BookingQuery.BookingQueryBuilder ownerQuery() {
+        return BookingQuery.builder()
+                .role(BookingQuery.Role.OWNER)
+                .userId(itemOwner.getId())
+                .now(LocalDateTime.now())
+                .size(10);
     }
 
-    @AfterEach
-    public void afterEach() {
-        userRepository.deleteAll();
-        itemRepository.deleteAll();
-        bookingRepository.deleteAll();
+    private List<Integer> ids(List<BookingDetailedDto> bookings) {
+        return bookings.stream().map(BookingDetailedDto::getId).collect(Collectors.toList());
     }
-}
\ No newline at end of file
+}
@@ -2,32 +2,49 @@ package ru.practicum.shareit.booking;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.Pageable;
+import org.springframework.dao.DataIntegrityViolationException;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDetailedDto;
+import ru.practicum.shareit.booking.dto.BookingIntervalDto;
 import ru.practicum.shareit.booking.dto.BookingPostDto;
 import ru.practicum.shareit.booking.dto.BookingPostResponseDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.exception.InvalidBookingException;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.booking.repository.BookingQuery;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingMapper;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.service.BookingTimeline;
+import ru.practicum.shareit.booking.service.ItemBookingLocks;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryService;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemCache;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
-import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class BookingServiceTest {
@@ -41,6 +58,8 @@ public class BookingServiceTest {
     private UserRepository userRepository;
     private ItemRepository itemRepository;
     private BookingRepository bookingRepository;
+    private ItemBookingSummaryService summaryService;
+    private ItemBookingLocks itemLocks;
 
     private User user;
     private Item item;
@@ -53,7 +72,15 @@ public class BookingServiceTest {
         userRepository = mock(UserRepository.class);
         itemRepository = mock(ItemRepository.class);
         bookingRepository = mock(BookingRepository.class);
-        bookingService = new BookingService(userRepository, itemRepository, bookingRepository);
+        summaryService = mock(ItemBookingSummaryService.class);
+        itemLocks = spy(new ItemBookingLocks(4));
+        bookingService = new BookingService(userRepository,
+                new ItemCache(itemRepository, 100, Duration.ofMinutes(5)),
+                bookingRepository,
+                summaryService,
+                itemLocks,
+                mock(BookingTimeline.class),
+                new UserExistenceCache(userRepository, 100, Duration.ofMinutes(5), Duration.ofSeconds(5)));
 
         bookingPostDto = BookingPostDto.builder()
                 .id(ID)
@@ -87,7 +114,7 @@ public class BookingServiceTest {
         when(itemRepository.findById(any(Integer.class)))
                 .thenReturn(Optional.ofNullable(item));
 
-        when(bookingRepository.save(any(Booking.class)))
+        when(bookingRepository.saveAndFlush(any(Booking.class)))
                 .thenReturn(booking);
 
         BookingPostResponseDto result = bookingService.createBooking(bookingPostDto, ID);
@@ -98,37 +125,114 @@ public class BookingServiceTest {
         assertEquals(bookingPostDto.getEnd(), result.getEnd());
     }
 
-
     @Test
-    public void patchBookingTest() {
-        booking.setStatus(BookingStatus.WAITING);
+    public void createBookingShouldThrowInvalidBookingExceptionWhenPeriodIsTaken() {
+        when(userRepository.findById(any(Integer.class)))
+                .thenReturn(Optional.ofNullable(user));
 
-        when(bookingRepository.findById(any(Integer.class)))
-                .thenReturn(Optional.ofNullable(booking));
+        when(itemRepository.findById(any(Integer.class)))
+                .thenReturn(Optional.ofNullable(item));
+
+        when(bookingRepository.existsOverlapping(any(Integer.class), any(Integer.class), anyList(),
+                any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(true);
+
+        assertThrows(InvalidBookingException.class, () -> bookingService.createBooking(bookingPostDto, ID));
+        verify(bookingRepository, never()).saveAndFlush(any(Booking.class));
+    }
+
+    @Test
+    public void createBookingShouldThrowInvalidBookingExceptionWhenExclusionConstraintFails() {
+        when(userRepository.findById(any(Integer.class)))
+                .thenReturn(Optional.ofNullable(user));
 
         when(itemRepository.findById(any(Integer.class)))
                 .thenReturn(Optional.ofNullable(item));
 
-        when(bookingRepository.save(any(Booking.class)))
-                .thenReturn(booking);
+        when(bookingRepository.saveAndFlush(any(Booking.class)))
+                .thenThrow(new DataIntegrityViolationException("ex_bookings_item_period"));
+
+        InvalidBookingException e = assertThrows(InvalidBookingException.class,
+                () -> bookingService.createBooking(bookingPostDto, ID));
+        assertEquals(BookingService.OVERLAPPING_BOOKING_MESSAGE + item.getId(), e.getMessage());
+    }
+
+    @Test
+    public void createBookingsTest() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Item ownItem = new Item(ID + 1, "own", "description", true, ID, null);
+        BookingPostDto first = BookingPostDto.builder().itemId(ID).start(start).end(start.plusDays(2)).build();
+        BookingPostDto own = BookingPostDto.builder().itemId(ID + 1).start(start).end(start.plusDays(1)).build();
+        BookingPostDto overlapping = BookingPostDto.builder()
+                .itemId(ID).start(start.plusDays(1)).end(start.plusDays(3)).build();
+        BookingPostDto taken = BookingPostDto.builder()
+                .itemId(ID).start(start.plusDays(10)).end(start.plusDays(11)).build();
+        Booking saved = new Booking(ID, first.getStart(), first.getEnd(), item, user, BookingStatus.WAITING);
+
+        when(userRepository.findById(ID)).thenReturn(Optional.of(user));
+        when(itemRepository.findAllById(anyCollection())).thenReturn(List.of(item, ownItem));
+        when(bookingRepository.findActiveIntervals(anyCollection(), anyList(), any(LocalDateTime.class)))
+                .thenReturn(List.of(new BookingIntervalDto(ID + 5, ID, start.plusDays(10), start.plusDays(12))));
+        when(bookingRepository.saveAll(anyList())).thenReturn(List.of(saved));
+
+        List<BookingBatchResultDto> results = bookingService
+                .createBookings(List.of(first, own, overlapping, taken), ID);
+
+        assertEquals(4, results.size());
+        assertEquals(ID, results.get(0).getBooking().getId());
+        assertNull(results.get(0).getError());
+        assertEquals(BookingService.INVALID_BUCKING, results.get(1).getError());
+        assertEquals(BookingService.OVERLAPPING_BOOKING_MESSAGE + ID, results.get(2).getError());
+        assertEquals(BookingService.OVERLAPPING_BOOKING_MESSAGE + ID, results.get(3).getError());
+        verify(bookingRepository).saveAll(argThat(bookings -> ((List<Booking>) bookings).size() == 1));
+        verify(itemRepository, never()).findById(any(Integer.class));
+    }
+
+    @Test
+    public void createBookingsEmptyBatchTest() {
+        assertThrows(InvalidBookingException.class, () -> bookingService.createBookings(List.of(), ID));
+        verify(bookingRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    public void patchBookingTest() {
+        when(bookingRepository.updateStatus(ID, ID + 1, BookingStatus.APPROVED, BookingStatus.WAITING))
+                .thenReturn(1);
+
+        when(bookingRepository.findWithItemAndBookerById(any(Integer.class)))
+                .thenReturn(Optional.ofNullable(booking));
 
         BookingResponseDto result = bookingService.patchBooking(ID, true, ID + 1);
 
         assertNotNull(result);
         assertEquals(ID, result.getId());
         assertEquals(BookingStatus.APPROVED, result.getStatus());
+        verify(summaryService, never()).refresh(anyList());
+    }
+
+    @Test
+    public void patchBookingShouldRefreshSummaryOnlyWhenRejected() {
+        booking.setStatus(BookingStatus.REJECTED);
+        when(bookingRepository.updateStatus(ID, ID + 1, BookingStatus.REJECTED, BookingStatus.WAITING))
+                .thenReturn(1);
+
+        when(bookingRepository.findWithItemAndBookerById(any(Integer.class)))
+                .thenReturn(Optional.ofNullable(booking));
+
+        bookingService.patchBooking(ID, false, ID + 1);
+
+        verify(itemLocks).withItemLock(eq(item.getId()), any());
+        verify(summaryService).refresh(List.of(item.getId()));
+        verify(bookingRepository).findWithItemAndBookerById(ID);
     }
 
     @Test
     public void patchBookingNoSuchElementExceptionTest() {
         booking.setStatus(BookingStatus.WAITING);
         item.setOwner(ID);
-        when(bookingRepository.findById(any(Integer.class)))
+        when(bookingRepository.findWithItemAndBookerById(any(Integer.class)))
                 .thenReturn(Optional.ofNullable(booking));
 
-        when(itemRepository.findById(any(Integer.class)))
-                .thenReturn(Optional.ofNullable(item));
-
         Exception e = assertThrows(NotFoundException.class,
                 () -> {
                     bookingService.patchBooking(ID, true, ID + 1);
@@ -141,11 +245,8 @@ public class BookingServiceTest {
     public void findByIdTest() {
         item.setOwner(owner.getId());
 
-        when(userRepository.findById(any(Integer.class)))
-                .thenReturn(Optional.ofNullable(user));
-
-        when(bookingRepository.findById(any(Integer.class)))
-                .thenReturn(Optional.ofNullable(booking));
+        when(bookingRepository.findDetailedById(ID, ID))
+                .thenReturn(Optional.of(BookingMapper.toDetailedDto(booking)));
 
         BookingDetailedDto result = bookingService.findById(ID, ID);
 
@@ -155,12 +256,8 @@ public class BookingServiceTest {
 
     @Test
     public void findByIdNoSuchElementExceptionTest() {
-        user.setId(ID + 10);
-        when(userRepository.findById(any(Integer.class)))
-                .thenReturn(Optional.ofNullable(user));
-
-        when(bookingRepository.findById(any(Integer.class)))
-                .thenReturn(Optional.ofNullable(booking));
+        when(bookingRepository.findDetailedById(any(Integer.class), any(Integer.class)))
+                .thenReturn(Optional.empty());
 
         Exception e = assertThrows(NotFoundException.class,
                 () -> {
@@ -171,200 +268,228 @@ public class BookingServiceTest {
 
     @Test
     public void findAllByBookerStateRejectedTest() {
-        when(userRepository.findById(any(Integer.class)))
-                .thenReturn(Optional.ofNullable(user));
+        when(userRepository.existsById(any(Integer.class)))
+                .thenReturn(true);
 
-        when(bookingRepository
-                .findByBookerIdAndStatus(any(Integer.class), any(BookingStatus.class), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(Collections.singletonList(booking)));
+        when(bookingRepository.findDetailed(any(BookingQuery.class)))
+                .thenReturn(Collections.singletonList(BookingMapper.toDetailedDto(booking)));
 
         List<BookingDetailedDto> result = bookingService
-                .findAllByBooker("REJECTED", ID, FROM_VALUE, SIZE_VALUE);
+                .findAllByBooker("REJECTED", ID, null, FROM_VALUE, null, SIZE_VALUE);
 
         assertNotNull(result);
         assertFalse(result.isEmpty());
+        verify(bookingRepository).findDetailed(argThat(query -> query.getRole() == BookingQuery.Role.BOOKER
+                && query.getStates().equals(Set.of(State.REJECTED))));
     }
 
     @Test
     public void findAllByBookerStateWaitingTest() {
-        when(userRepository.findById(any(Integer.class)))
-                .thenReturn(Optional.ofNullable(user));
+        when(userRepository.existsById(any(Integer.class)))
+                .thenReturn(true);
 
-        when(bookingRepository
-                .findByBookerIdAndStatus(any(Integer.class), any(BookingStatus.class), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(Collections.singletonList(booking)));
+        when(bookingRepository.findDetailed(any(BookingQuery.class)))
+                .thenReturn(Collections.singletonList(BookingMapper.toDetailedDto(booking)));
 
         List<BookingDetailedDto> result = bookingService
-                .findAllByBooker("WAITING", ID, FROM_VALUE, SIZE_VALUE);
+                .findAllByBooker("WAITING", ID, null, FROM_VALUE, null, SIZE_VALUE);
 
         assertNotNull(result);
         assertFalse(result.isEmpty());
+        verify(bookingRepository).findDetailed(argThat(query -> query.getRole() == BookingQuery.Role.BOOKER
+                && query.getStates().equals(Set.of(State.WAITING))));
     }
 
     @Test
     public void findAllByBookerStateCurrentTest() {
-        when(userRepository.findById(any(Integer.class)))
-                .thenReturn(Optional.ofNullable(user));
+        when(userRepository.existsById(any(Integer.class)))
+                .thenReturn(true);
 
-        when(bookingRepository
-                .findByBookerIdCurrent(any(Integer.class), any(LocalDateTime.class), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(Collections.singletonList(booking)));
+        when(bookingRepository.findDetailed(any(BookingQuery.class)))
+                .thenReturn(Collections.singletonList(BookingMapper.toDetailedDto(booking)));
 
         List<BookingDetailedDto> result = bookingService
-                .findAllByBooker("CURRENT", ID, FROM_VALUE, SIZE_VALUE);
+                .findAllByBooker("CURRENT", ID, null, FROM_VALUE, null, SIZE_VALUE);
 
         assertNotNull(result);
         assertFalse(result.isEmpty());
+        verify(bookingRepository).findDetailed(argThat(query -> query.getRole() == BookingQuery.Role.BOOKER
+                && query.getStates().equals(Set.of(State.CURRENT))));
     }
 
     @Test
     public void findAllByBookerStateFutureTest() {
-        when(userRepository.findById(any(Integer.class)))
-                .thenReturn(Optional.ofNullable(user));
+        when(userRepository.existsById(any(Integer.class)))
+                .thenReturn(true);
 
-        when(bookingRepository
-                .findByBookerIdAndStartIsAfter(any(Integer.class), any(LocalDateTime.class), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(Collections.singletonList(booking)));
+        when(bookingRepository.findDetailed(any(BookingQuery.class)))
+                .thenReturn(Collections.singletonList(BookingMapper.toDetailedDto(booking)));
 
         List<BookingDetailedDto> result = bookingService
-                .findAllByBooker("FUTURE", ID, FROM_VALUE, SIZE_VALUE);
+                .findAllByBooker("FUTURE", ID, null, FROM_VALUE, null, SIZE_VALUE);
 
         assertNotNull(result);
         assertFalse(result.isEmpty());
+        verify(bookingRepository).findDetailed(argThat(query -> query.getRole() == BookingQuery.Role.BOOKER
+                && query.getStates().equals(Set.of(State.FUTURE))));
     }
 
     @Test
     public void findAllByBookerStatePastTest() {
-        when(userRepository.findById(any(Integer.class)))
-                .thenReturn(Optional.ofNullable(user));
+        when(userRepository.existsById(any(Integer.class)))
+                .thenReturn(true);
 
-        when(bookingRepository
-                .findByBookerIdAndEndIsBefore(any(Integer.class), any(LocalDateTime.class), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(Collections.singletonList(booking)));
+        when(bookingRepository.findDetailed(any(BookingQuery.class)))
+                .thenReturn(Collections.singletonList(BookingMapper.toDetailedDto(booking)));
 
         List<BookingDetailedDto> result = bookingService
-                .findAllByBooker("PAST", ID, FROM_VALUE, SIZE_VALUE);
+                .findAllByBooker("PAST", ID, null, FROM_VALUE, null, SIZE_VALUE);
 
         assertNotNull(result);
         assertFalse(result.isEmpty());
+        verify(bookingRepository).findDetailed(argThat(query -> query.getRole() == BookingQuery.Role.BOOKER
+                && query.getStates().equals(Set.of(State.PAST))));
     }
 
     @Test
     public void findAllByBookerStateAllTest() {
-        when(userRepository.findById(any(Integer.class)))
-                .thenReturn(Optional.ofNullable(user));
+        when(userRepository.existsById(any(Integer.class)))
+                .thenReturn(true);
 
-        when(bookingRepository
-                .findByBookerId(any(Integer.class), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(List.of(booking)));
+        when(bookingRepository.findDetailed(any(BookingQuery.class)))
+                .thenReturn(Collections.singletonList(BookingMapper.toDetailedDto(booking)));
 
         List<BookingDetailedDto> result = bookingService
-                .findAllByBooker("ALL", ID, FROM_VALUE, SIZE_VALUE);
+                .findAllByBooker("ALL", ID, null, FROM_VALUE, null, SIZE_VALUE);
 
         assertNotNull(result);
         assertFalse(result.isEmpty());
+        verify(bookingRepository).findDetailed(argThat(query -> query.getRole() == BookingQuery.Role.BOOKER
+                && query.getStates().equals(Set.of(State.ALL))));
     }
 
     @Test
     public void findAllByItemOwnerStateRejectedTest() {
+        when(userRepository.existsById(any(Integer.class)))
+                .thenReturn(true);
 
-        when(userRepository.findById(any(Integer.class)))
-                .thenReturn(Optional.ofNullable(user));
-
-        when(bookingRepository
-                .findBookingByItemOwnerAndStatus(any(Integer.class), any(BookingStatus.class), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(Collections.singletonList(booking)));
+        when(bookingRepository.findDetailed(any(BookingQuery.class)))
+                .thenReturn(Collections.singletonList(BookingMapper.toDetailedDto(booking)));
 
         List<BookingDetailedDto> result = bookingService
-                .findAllByItemOwner("REJECTED", ID, FROM_VALUE, SIZE_VALUE);
+                .findAllByItemOwner("REJECTED", ID, null, FROM_VALUE, null, SIZE_VALUE);
 
         assertNotNull(result);
         assertFalse(result.isEmpty());
+        verify(bookingRepository).findDetailed(argThat(query -> query.getRole() == BookingQuery.Role.OWNER
+                && query.getStates().equals(Set.of(State.REJECTED))));
     }
 
     @Test
     public void findAllByItemOwnerStateWaitingTest() {
+        when(userRepository.existsById(any(Integer.class)))
+                .thenReturn(true);
 
-        when(userRepository.findById(any(Integer.class)))
-                .thenReturn(Optional.ofNullable(user));
-
-        when(bookingRepository
-                .findBookingByItemOwnerAndStatus(any(Integer.class), any(BookingStatus.class), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(Collections.singletonList(booking)));
+        when(bookingRepository.findDetailed(any(BookingQuery.class)))
+                .thenReturn(Collections.singletonList(BookingMapper.toDetailedDto(booking)));
 
         List<BookingDetailedDto> result = bookingService
-                .findAllByItemOwner("WAITING", ID, FROM_VALUE, SIZE_VALUE);
+                .findAllByItemOwner("WAITING", ID, null, FROM_VALUE, null, SIZE_VALUE);
 
         assertNotNull(result);
         assertFalse(result.isEmpty());
+        verify(bookingRepository).findDetailed(argThat(query -> query.getRole() == BookingQuery.Role.OWNER
+                && query.getStates().equals(Set.of(State.WAITING))));
     }
 
     @Test
     public void findAllByItemOwnerStateCurrentTest() {
+        when(userRepository.existsById(any(Integer.class)))
+                .thenReturn(true);
 
-        when(userRepository.findById(any(Integer.class)))
-                .thenReturn(Optional.ofNullable(user));
-
-        when(bookingRepository
-                .findBookingsByItemOwnerCurrent(any(Integer.class), any(LocalDateTime.class), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(Collections.singletonList(booking)));
+        when(bookingRepository.findDetailed(any(BookingQuery.class)))
+                .thenReturn(Collections.singletonList(BookingMapper.toDetailedDto(booking)));
 
         List<BookingDetailedDto> result = bookingService
-                .findAllByItemOwner("CURRENT", ID, FROM_VALUE, SIZE_VALUE);
+                .findAllByItemOwner("CURRENT", ID, null, FROM_VALUE, null, SIZE_VALUE);
 
         assertNotNull(result);
         assertFalse(result.isEmpty());
+        verify(bookingRepository).findDetailed(argThat(query -> query.getRole() == BookingQuery.Role.OWNER
+                && query.getStates().equals(Set.of(State.CURRENT))));
     }
 
     @Test
     public void findAllByItemOwnerStateFutureTest() {
+        when(userRepository.existsById(any(Integer.class)))
+                .thenReturn(true);
 
-        when(userRepository.findById(any(Integer.class)))
-                .thenReturn(Optional.ofNullable(user));
-
-        when(bookingRepository
-                .findBookingByItemOwnerAndStartIsAfter(any(Integer.class), any(LocalDateTime.class), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(Collections.singletonList(booking)));
+        when(bookingRepository.findDetailed(any(BookingQuery.class)))
+                .thenReturn(Collections.singletonList(BookingMapper.toDetailedDto(booking)));
 
         List<BookingDetailedDto> result = bookingService
-                .findAllByItemOwner("FUTURE", ID, FROM_VALUE, SIZE_VALUE);
+                .findAllByItemOwner("FUTURE", ID, null, FROM_VALUE, null, SIZE_VALUE);
 
         assertNotNull(result);
         assertFalse(result.isEmpty());
+        verify(bookingRepository).findDetailed(argThat(query -> query.getRole() == BookingQuery.Role.OWNER
+                && query.getStates().equals(Set.of(State.FUTURE))));
     }
 
     @Test
     public void findAllByItemOwnerStatePastTest() {
+        when(userRepository.existsById(any(Integer.class)))
+                .thenReturn(true);
 
-        when(userRepository.findById(any(Integer.class)))
-                .thenReturn(Optional.ofNullable(user));
-
-        when(bookingRepository
-                .findBookingByItemOwnerAndEndIsBefore(any(Integer.class), any(LocalDateTime.class), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(Collections.singletonList(booking)));
+        when(bookingRepository.findDetailed(any(BookingQuery.class)))
+                .thenReturn(Collections.singletonList(BookingMapper.toDetailedDto(booking)));
 
         List<BookingDetailedDto> result = bookingService
-                .findAllByItemOwner("PAST", ID, FROM_VALUE, SIZE_VALUE);
+                .findAllByItemOwner("PAST", ID, null, FROM_VALUE, null, SIZE_VALUE);
 
         assertNotNull(result);
         assertFalse(result.isEmpty());
+        verify(bookingRepository).findDetailed(argThat(query -> query.getRole() == BookingQuery.Role.OWNER
+                && query.getStates().equals(Set.of(State.PAST))));
     }
 
     @Test
     public void findAllByItemOwnerStateAllTest() {
+        when(userRepository.existsById(any(Integer.class)))
+                .thenReturn(true);
 
-        when(userRepository.findById(any(Integer.class)))
-                .thenReturn(Optional.ofNullable(user));
-
-        when(bookingRepository
-                .findBookingByItemOwner(any(Integer.class), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(Collections.singletonList(booking)));
+        when(bookingRepository.findDetailed(any(BookingQuery.class)))
+                .thenReturn(Collections.singletonList(BookingMapper.toDetailedDto(booking)));
 
         List<BookingDetailedDto> result = bookingService
-                .findAllByItemOwner("ALL", ID, FROM_VALUE, SIZE_VALUE);
+                .findAllByItemOwner("ALL", ID, null, FROM_VALUE, null, SIZE_VALUE);
 
         assertNotNull(result);
         assertFalse(result.isEmpty());
+        verify(bookingRepository).findDetailed(argThat(query -> query.getRole() == BookingQuery.Role.OWNER
+                && query.getStates().equals(Set.of(State.ALL))));
+    }
+
+    @Test
+    public void findAllByItemOwnerCombinedStatesTest() {
+        when(userRepository.existsById(any(Integer.class)))
+                .thenReturn(true);
+
+        bookingService.findAllByItemOwner("WAITING,FUTURE", ID, ID, FROM_VALUE, null, SIZE_VALUE);
+
+        verify(bookingRepository).findDetailed(argThat(query -> ID.equals(query.getItemId())
+                && query.getStates().equals(Set.of(State.WAITING, State.FUTURE))));
+    }
+
+    @Test
+    public void findAllByBookerUnknownStateTest() {
+        when(userRepository.existsById(any(Integer.class)))
+                .thenReturn(true);
+
+        InvalidBookingException e = assertThrows(InvalidBookingException.class,
+                () -> bookingService.findAllByBooker("WAITING,SOMETIMES", ID, null, FROM_VALUE, null, SIZE_VALUE));
+
+        assertEquals("Unknown state: SOMETIMES", e.getMessage());
     }
 
     @Test
@@ -388,13 +513,8 @@ public class BookingServiceTest {
 
     @Test
     public void findByIdAccessDeniedTest() {
-        user.setId(ID + 10);
-
-        when(userRepository.findById(any(Integer.class)))
-                .thenReturn(Optional.ofNullable(user));
-
-        when(bookingRepository.findById(any(Integer.class)))
-                .thenReturn(Optional.ofNullable(booking));
+        when(bookingRepository.findDetailedById(any(Integer.class), any(Integer.class)))
+                .thenReturn(Optional.empty());
 
         NotFoundException e = assertThrows(NotFoundException.class,
                 () -> {
@@ -406,18 +526,13 @@ public class BookingServiceTest {
 
     @Test
     public void patchBookingAlreadyRejectedTest() {
-        when(bookingRepository.findById(any(Integer.class)))
+        when(bookingRepository.findWithItemAndBookerById(any(Integer.class)))
                 .thenReturn(Optional.empty());
 
-        when(itemRepository.findById(any(Integer.class)))
-                .thenReturn(Optional.empty());
-
-        NoSuchElementException e = assertThrows(NoSuchElementException.class,
-                () -> {
-                    bookingService.patchBooking(ID, true, ID + 1);
-                });
+        NotFoundException e = assertThrows(NotFoundException.class,
+                () -> bookingService.patchBooking(ID, true, ID + 1));
 
-        assertNotNull(e);
+        assertEquals(BookingService.BOOKING_NOT_FOUND_MESSAGE + ID, e.getMessage());
     }
 
     @Test
@@ -440,27 +555,19 @@ public class BookingServiceTest {
     void patchBookingInvalidStatusTest() {
         booking.setStatus(BookingStatus.APPROVED);
 
-        when(bookingRepository.findById(any(Integer.class)))
+        when(bookingRepository.findWithItemAndBookerById(any(Integer.class)))
                 .thenReturn(Optional.ofNullable(booking));
 
-        when(itemRepository.findById(any(Integer.class)))
-                .thenReturn(Optional.ofNullable(item));
-
         InvalidBookingException e = assertThrows(InvalidBookingException.class,
                 () -> bookingService.patchBooking(ID, true, ID + 1));
 
-        assertEquals("", e.getMessage());  // The exception message is empty in this case
+        assertEquals(BookingService.ALREADY_DECIDED_MESSAGE + BookingStatus.APPROVED, e.getMessage());
     }
 
     @Test
     void findByIdInvalidUserTest() {
-        user.setId(ID + 10);
-
-        when(userRepository.findById(any(Integer.class)))
-                .thenReturn(Optional.ofNullable(user));
-
-        when(bookingRepository.findById(any(Integer.class)))
-                .thenReturn(Optional.ofNullable(booking));
+        when(bookingRepository.findDetailedById(any(Integer.class), any(Integer.class)))
+                .thenReturn(Optional.empty());
 
         NotFoundException e = assertThrows(NotFoundException.class,
                 () -> bookingService.findById(ID, ID));
@@ -470,28 +577,22 @@ public class BookingServiceTest {
 
     @Test
     void findAllByBookerInvalidStateTest() {
-        when(userRepository.findById(any(Integer.class)))
-                .thenReturn(Optional.ofNullable(user));
-
-        when(bookingRepository.findByBookerIdAndStatus(any(Integer.class), any(BookingStatus.class), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(Collections.singletonList(booking)));
+        when(userRepository.existsById(any(Integer.class)))
+                .thenReturn(true);
 
         InvalidBookingException e = assertThrows(InvalidBookingException.class,
-                () -> bookingService.findAllByBooker("INVALID_STATE", ID, FROM_VALUE, SIZE_VALUE));
+                () -> bookingService.findAllByBooker("INVALID_STATE", ID, null, FROM_VALUE, null, SIZE_VALUE));
 
         assertEquals("Unknown state: INVALID_STATE", e.getMessage());
     }
 
     @Test
     void findAllByItemOwnerInvalidStateTest() {
-        when(userRepository.findById(any(Integer.class)))
-                .thenReturn(Optional.ofNullable(user));
-
-        when(bookingRepository.findBookingByItemOwnerAndStatus(any(Integer.class), any(BookingStatus.class), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(Collections.singletonList(booking)));
+        when(userRepository.existsById(any(Integer.class)))
+                .thenReturn(true);
 
         InvalidBookingException e = assertThrows(InvalidBookingException.class,
-                () -> bookingService.findAllByItemOwner("INVALID_STATE", ID, FROM_VALUE, SIZE_VALUE));
+                () -> bookingService.findAllByItemOwner("INVALID_STATE", ID, null, FROM_VALUE, null, SIZE_VALUE));
 
         assertEquals("Unknown state: INVALID_STATE", e.getMessage());
     }
@@ -0,0 +1,134 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingPostDto;
+import ru.practicum.shareit.booking.exception.InvalidBookingException;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class ConcurrentBookingTest {
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 20;
+
+    private final BookingService bookingService;
+    private final ItemService itemService;
+    private final UserService userService;
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+
+    private List<Integer> itemIds;
+    private List<Integer> bookerIds;
+
+    @BeforeEach
+    public void beforeEach() {
+        UserDto owner = userService.saveUser(UserDto.builder().name("owner").email("owner@email.com").build());
+        itemIds = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            ItemDto item = itemService.saveItem(owner.getId(), ItemDto.builder()
+                    .name("item " + i)
+                    .description("description")
+                    .available(true)
+                    .build());
+            itemIds.add(item.getId());
+        }
+        bookerIds = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            UserDto booker = userService.saveUser(UserDto.builder()
+                    .name("booker " + i)
+                    .email("booker" + i + "@email.com")
+                    .build());
+            bookerIds.add(booker.getId());
+        }
+    }
+
+    @AfterEach
+    public void afterEach() {
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void concurrentBookingsShouldNotOverlap() throws Exception {
+        LocalDateTime base = LocalDateTime.now().plusDays(1).withNano(0);
+        AtomicInteger created = new AtomicInteger();
+        CountDownLatch startSignal = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (Integer bookerId : bookerIds) {
+            futures.add(executor.submit(() -> {
+                startSignal.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    LocalDateTime start = base.plusHours(random.nextInt(48));
+                    BookingPostDto dto = BookingPostDto.builder()
+                            .itemId(itemIds.get(random.nextInt(itemIds.size())))
+                            .start(start)
+                            .end(start.plusHours(1 + random.nextInt(6)))
+                            .build();
+                    try {
+                        bookingService.createBooking(dto, bookerId);
+                        created.incrementAndGet();
+                    } catch (InvalidBookingException e) {
+                        // период занят другим потоком
+                    }
+                }
+                return null;
+            }));
+        }
+        startSignal.countDown();
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        List<Booking> bookings = bookingRepository.findAll();
+        assertEquals(created.get(), bookings.size());
+        assertFalse(bookings.isEmpty());
+        for (Integer itemId : itemIds) {
+            List<Booking> itemBookings = bookings.stream()
+                    .filter(booking -> booking.getItem().getId() == itemId)
+                    .sorted(Comparator.comparing(Booking::getStart))
+                    .collect(Collectors.toList());
+            for (int i = 1; i < itemBookings.size(); i++) {
+                assertTrue(!itemBookings.get(i).getStart().isBefore(itemBookings.get(i - 1).getEnd()),
+                        "пересекаются бронирования " + itemBookings.get(i - 1).getId()
+                                + " и " + itemBookings.get(i).getId());
+            }
+        }
+    }
+}
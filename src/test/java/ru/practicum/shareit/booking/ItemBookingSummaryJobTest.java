@@ -0,0 +1,53 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryJob;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+public class ItemBookingSummaryJobTest {
+
+    private ItemBookingSummaryRepository summaryRepository;
+    private ItemBookingSummaryService summaryService;
+    private ItemBookingSummaryJob job;
+
+    @BeforeEach
+    public void beforeEach() {
+        summaryRepository = mock(ItemBookingSummaryRepository.class);
+        summaryService = mock(ItemBookingSummaryService.class);
+        job = new ItemBookingSummaryJob(summaryRepository, summaryService);
+    }
+
+    @Test
+    public void refreshDueRefreshesEachBatchSeparatelyTest() {
+        List<Integer> fullBatch = IntStream.rangeClosed(1, 500).boxed().collect(Collectors.toList());
+        when(summaryRepository.findDueItemIds(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(fullBatch, List.of(501));
+
+        job.refreshDue();
+
+        verify(summaryService).refreshLocked(fullBatch);
+        verify(summaryService).refreshLocked(List.of(501));
+    }
+
+    @Test
+    public void backfillSkipsEmptyBatchTest() {
+        when(summaryRepository.findItemIdsWithoutSummary(any(Pageable.class)))
+                .thenReturn(List.of());
+
+        job.backfill();
+
+        verify(summaryService, never()).refreshLocked(anyList());
+    }
+}
@@ -0,0 +1,95 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import ru.practicum.shareit.booking.dto.ItemActiveBookingsDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.booking.service.ItemBookingLocks;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ItemBookingSummaryServiceTest {
+
+    public static final Integer ID = 1;
+
+    private ItemBookingSummaryRepository summaryRepository;
+    private BookingRepository bookingRepository;
+    private ItemBookingSummaryService summaryService;
+    private ItemBookingLocks itemLocks;
+    private Booking lastBooking;
+    private Booking nextBooking;
+
+    @BeforeEach
+    public void beforeEach() {
+        summaryRepository = mock(ItemBookingSummaryRepository.class);
+        bookingRepository = mock(BookingRepository.class);
+        itemLocks = spy(new ItemBookingLocks(4));
+        summaryService = new ItemBookingSummaryService(summaryRepository, bookingRepository, itemLocks);
+
+        LocalDateTime now = LocalDateTime.now();
+        Item item = new Item(ID, "name", "description", true, ID, null);
+        User booker = new User(ID + 1, "booker", "booker@email.com");
+        lastBooking = new Booking(ID, now.minusDays(2), now.minusDays(1), item, booker, BookingStatus.APPROVED);
+        nextBooking = new Booking(ID + 1, now.plusDays(1), now.plusDays(2), item, booker, BookingStatus.WAITING);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void refreshTest() {
+        when(bookingRepository.findLastAndNextBookings(anyList(), any(LocalDateTime.class), any(BookingStatus.class)))
+                .thenReturn(List.of(lastBooking, nextBooking));
+        when(bookingRepository.countActiveBookings(anyList(), anyList(), any(LocalDateTime.class)))
+                .thenReturn(List.of(new ItemActiveBookingsDto(ID, 1L, nextBooking.getEnd())));
+
+        summaryService.refresh(List.of(ID));
+
+        ArgumentCaptor<List<ItemBookingSummary>> captor = ArgumentCaptor.forClass(List.class);
+        verify(summaryRepository).saveAll(captor.capture());
+        ItemBookingSummary summary = captor.getValue().get(0);
+        assertEquals(ID, summary.getItemId());
+        assertEquals(lastBooking.getId(), summary.getLastBookingId());
+        assertEquals(nextBooking.getId(), summary.getNextBookingId());
+        assertEquals(1, summary.getActiveBookings());
+        assertEquals(nextBooking.getStart(), summary.getRefreshAt());
+    }
+
+    @Test
+    public void refreshLockedTakesItemLocksTest() {
+        summaryService.refreshLocked(List.of(ID, ID + 1));
+
+        verify(itemLocks).withItemLocks(eq(List.of(ID, ID + 1)), any());
+        verify(summaryRepository).saveAll(anyList());
+    }
+
+    @Test
+    public void findByItemIdsRecomputesStaleSummaryTest() {
+        ItemBookingSummary stale = ItemBookingSummary.builder()
+                .itemId(ID)
+                .refreshAt(LocalDateTime.now().minusMinutes(1))
+                .build();
+        when(summaryRepository.findAllById(anyList()))
+                .thenReturn(List.of(stale));
+        when(bookingRepository.findLastAndNextBookings(anyList(), any(LocalDateTime.class), any(BookingStatus.class)))
+                .thenReturn(List.of(lastBooking));
+
+        Map<Integer, ItemBookingSummary> result = summaryService.findByItemIds(List.of(ID));
+
+        assertEquals(lastBooking.getId(), result.get(ID).getLastBookingId());
+        assertNull(result.get(ID).getNextBookingId());
+        verify(summaryRepository, never()).saveAll(anyList());
+    }
+}
@@ -0,0 +1,88 @@
+package ru.practicum.shareit.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExpiringCacheTest {
+
+    private AtomicLong clock;
+    private ExpiringCache<Integer, String> cache;
+
+    @BeforeEach
+    public void beforeEach() {
+        clock = new AtomicLong();
+        cache = new ExpiringCache<>(2, Duration.ofSeconds(10), clock::get);
+    }
+
+    @Test
+    public void hitAndMissTest() {
+        cache.put(1, "one");
+
+        assertEquals(Optional.of("one"), cache.get(1));
+        assertEquals(Optional.empty(), cache.get(2));
+        assertEquals(1, cache.stats().getHits());
+        assertEquals(1, cache.stats().getMisses());
+    }
+
+    @Test
+    public void expiredEntryTest() {
+        cache.put(1, "one");
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        assertEquals(Optional.empty(), cache.get(1));
+        assertEquals(1, cache.stats().getEvictions());
+        assertEquals(0, cache.stats().getSize());
+    }
+
+    @Test
+    public void leastRecentlyUsedEvictionTest() {
+        cache.put(1, "one");
+        cache.put(2, "two");
+        cache.get(1);
+        cache.put(3, "three");
+
+        assertEquals(Optional.of("one"), cache.get(1));
+        assertEquals(Optional.empty(), cache.get(2));
+        assertEquals(Optional.of("three"), cache.get(3));
+        assertEquals(1, cache.stats().getEvictions());
+    }
+
+    @Test
+    public void expiredEldestEntryEvictedBeforeLiveEntryTest() {
+        cache.put(1, "one", Duration.ofSeconds(1));
+        cache.put(2, "two");
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        cache.put(3, "three");
+
+        assertEquals(Optional.of("two"), cache.get(2));
+        assertEquals(Optional.of("three"), cache.get(3));
+        assertEquals(1, cache.stats().getEvictions());
+    }
+
+    @Test
+    public void sweepStopsAtFirstLiveEntryTest() {
+        cache = new ExpiringCache<>(3, Duration.ofSeconds(10), clock::get);
+        cache.put(1, "one");
+        cache.put(2, "two", Duration.ofSeconds(1));
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        cache.put(3, "three");
+
+        assertEquals(3, cache.stats().getSize());
+        assertEquals(Optional.empty(), cache.get(2));
+        assertEquals(2, cache.stats().getSize());
+    }
+
+    @Test
+    public void invalidateTest() {
+        cache.put(1, "one");
+        cache.invalidate(1);
+
+        assertEquals(Optional.empty(), cache.get(1));
+    }
+}
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import ru.practicum.shareit.item.dto.ItemCommentDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
@@ -57,15 +58,15 @@ public class CommentRepositoryTest {
     }
 
     @Test
-    public void findByItemIdTest() {
-        List<Comment> result = commentRepository.findByItemId(item.getId());
+    public void findAllByItemIdInTest() {
+        List<ItemCommentDto> result = commentRepository.findAllByItemIdIn(List.of(item.getId()));
 
         assertNotNull(result);
         assertFalse(result.isEmpty());
+        assertEquals(item.getId(), result.get(0).getItemId());
         assertEquals(comment.getId(), result.get(0).getId());
         assertEquals(comment.getText(), result.get(0).getText());
-        assertEquals(comment.getAuthor(), itemOwner);
-        assertEquals(comment.getItem(), item);
+        assertEquals(itemOwner.getName(), result.get(0).getAuthorName());
     }
 
     @AfterEach
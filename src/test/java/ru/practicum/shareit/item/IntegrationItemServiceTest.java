@@ -11,6 +11,7 @@ import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.dto.PostRequestDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
@@ -71,6 +72,21 @@ public class IntegrationItemServiceTest {
         assertEquals(savedItemDto.getAvailable(), searchedItemDto.getAvailable());
     }
 
+    @Test
+    public void updateItemKeepsRequestIdTest() {
+        Item item = itemRepository.findById(itemDto.getId()).orElseThrow();
+        item.setRequestId(itemRequestService.createRequest(
+                new PostRequestDto("need item"), userDto.getId()).getId());
+        itemRepository.saveAndFlush(item);
+
+        ItemDto updated = itemService.updateItem(itemDto.getId(), userDto.getId(),
+                ItemDto.builder().available(false).build());
+
+        assertEquals(item.getRequestId(), updated.getRequestId());
+        assertEquals(itemDto.getName(), updated.getName());
+        assertEquals(Boolean.FALSE, updated.getAvailable());
+    }
+
     private ItemDto generateItemDto() {
         ItemDto itemDto = ItemDto.builder()
                 .name("item1")
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.InvertedIndexItemSearchEngine;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+public class InvertedIndexItemSearchEngineTest {
+
+    private ItemRepository itemRepository;
+    private InvertedIndexItemSearchEngine searchEngine;
+    private Item drill;
+    private Item saw;
+
+    @BeforeEach
+    public void beforeEach() {
+        itemRepository = mock(ItemRepository.class);
+        searchEngine = new InvertedIndexItemSearchEngine(itemRepository);
+        drill = new Item(1, "Дрель", "Аккумуляторная дрель", true, 1, null);
+        saw = new Item(2, "Пила", "Ручная пила по дереву", true, 1, null);
+        searchEngine.index(drill);
+        searchEngine.index(saw);
+    }
+
+    @Test
+    public void searchByPrefixTest() {
+        when(itemRepository.findAllById(List.of(1)))
+                .thenReturn(List.of(drill));
+
+        List<Item> result = searchEngine.search("аккУМУЛ", 0, 20);
+
+        assertEquals(List.of(drill), result);
+    }
+
+    @Test
+    public void searchRequiresAllWordsTest() {
+        when(itemRepository.findAllById(List.of(2)))
+                .thenReturn(List.of(saw));
+
+        assertEquals(List.of(saw), searchEngine.search("пила дерев", 0, 20));
+        assertTrue(searchEngine.search("пила дрель", 0, 20).isEmpty());
+    }
+
+    @Test
+    public void searchPageTest() {
+        Item secondDrill = new Item(3, "Дрель ударная", "Сетевая дрель", true, 1, null);
+        searchEngine.index(secondDrill);
+        when(itemRepository.findAllById(List.of(3)))
+                .thenReturn(List.of(secondDrill));
+
+        assertEquals(List.of(secondDrill), searchEngine.search("дрель", 1, 1));
+        assertTrue(searchEngine.search("дрель", 2, 1).isEmpty());
+    }
+
+    @Test
+    public void updatedAndRemovedItemsTest() {
+        saw.setAvailable(false);
+        searchEngine.index(saw);
+        searchEngine.remove(drill.getId());
+
+        assertTrue(searchEngine.search("пила", 0, 20).isEmpty());
+        assertTrue(searchEngine.search("дрель", 0, 20).isEmpty());
+        verify(itemRepository, never()).findAllById(anyIterable());
+    }
+}
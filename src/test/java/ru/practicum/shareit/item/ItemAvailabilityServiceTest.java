@@ -0,0 +1,108 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.dto.BookingIntervalDto;
+import ru.practicum.shareit.booking.exception.InvalidBookingException;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingTimeline;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemAvailabilityService;
+import ru.practicum.shareit.item.service.ItemCache;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ItemAvailabilityServiceTest {
+
+    public static final Integer ID = 1;
+    public static final LocalDateTime FROM = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    private ItemCache itemCache;
+    private BookingRepository bookingRepository;
+    private BookingTimeline timeline;
+    private ItemAvailabilityService availabilityService;
+
+    @BeforeEach
+    public void beforeEach() {
+        itemCache = mock(ItemCache.class);
+        bookingRepository = mock(BookingRepository.class);
+        timeline = new BookingTimeline(bookingRepository, 100, Duration.ofMinutes(5));
+        availabilityService = new ItemAvailabilityService(itemCache, timeline);
+
+        when(itemCache.findById(ID)).thenReturn(Optional.of(new Item(ID, "name", "description", true, ID, null)));
+        when(bookingRepository.findActiveIntervals(anyCollection(), anyList(), any(LocalDateTime.class)))
+                .thenReturn(List.of(
+                        new BookingIntervalDto(ID, ID, FROM.minusDays(1), FROM.plusDays(1)),
+                        new BookingIntervalDto(ID + 1, ID, FROM.plusDays(2), FROM.plusDays(3)),
+                        new BookingIntervalDto(ID + 2, ID, FROM.plusDays(10), FROM.plusDays(11))));
+    }
+
+    @Test
+    public void getAvailabilityTest() {
+        ItemAvailabilityDto availability = availabilityService.getAvailability(ID, FROM, FROM.plusDays(5));
+
+        assertEquals(List.of(
+                        new ItemAvailabilityDto.Interval(FROM, FROM.plusDays(1)),
+                        new ItemAvailabilityDto.Interval(FROM.plusDays(2), FROM.plusDays(3))),
+                availability.getBusy());
+        assertEquals(List.of(
+                        new ItemAvailabilityDto.Interval(FROM.plusDays(1), FROM.plusDays(2)),
+                        new ItemAvailabilityDto.Interval(FROM.plusDays(3), FROM.plusDays(5))),
+                availability.getFree());
+    }
+
+    @Test
+    public void timelineLoadedOnceTest() {
+        availabilityService.getAvailability(ID, FROM, FROM.plusDays(5));
+        availabilityService.getAvailability(ID, FROM.plusDays(5), FROM.plusDays(15));
+
+        verify(bookingRepository, times(1)).findActiveIntervals(anyCollection(), anyList(), any(LocalDateTime.class));
+    }
+
+    @Test
+    public void timelineEvictedWhenCacheIsFullTest() {
+        BookingTimeline bounded = new BookingTimeline(bookingRepository, 1, Duration.ofMinutes(5));
+
+        bounded.findBusy(ID, FROM, FROM.plusDays(5));
+        bounded.findBusy(ID + 1, FROM, FROM.plusDays(5));
+        bounded.findBusy(ID, FROM, FROM.plusDays(5));
+
+        verify(bookingRepository, times(3)).findActiveIntervals(anyCollection(), anyList(), any(LocalDateTime.class));
+    }
+
+    @Test
+    public void timelineAddAndRemoveTest() {
+        availabilityService.getAvailability(ID, FROM, FROM.plusDays(5));
+        timeline.add(ID, ID + 3, FROM.plusDays(4), FROM.plusDays(5));
+        timeline.remove(ID, ID);
+
+        List<BookingIntervalDto> busy = timeline.findBusy(ID, FROM, FROM.plusDays(5));
+
+        assertEquals(2, busy.size());
+        assertEquals(ID + 1, busy.get(0).getId());
+        assertEquals(ID + 3, busy.get(1).getId());
+    }
+
+    @Test
+    public void getAvailabilityInvalidPeriodTest() {
+        assertThrows(InvalidBookingException.class,
+                () -> availabilityService.getAvailability(ID, FROM, FROM));
+    }
+
+    @Test
+    public void getAvailabilityUnknownItemTest() {
+        when(itemCache.findById(ID + 1)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class,
+                () -> availabilityService.getAvailability(ID + 1, FROM, FROM.plusDays(1)));
+    }
+}
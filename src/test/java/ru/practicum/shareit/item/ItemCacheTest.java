@@ -0,0 +1,64 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemCache;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ItemCacheTest {
+    private static final int ID = 1;
+
+    private ItemRepository itemRepository;
+    private ItemCache itemCache;
+
+    @BeforeEach
+    void beforeEach() {
+        itemRepository = mock(ItemRepository.class);
+        itemCache = new ItemCache(itemRepository, 100, Duration.ofMinutes(5));
+        when(itemRepository.findById(ID))
+                .thenReturn(Optional.of(new Item(ID, "old", "description", true, ID, null)),
+                        Optional.of(new Item(ID, "new", "description", true, ID, null)));
+    }
+
+    @AfterEach
+    void afterEach() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void evictShouldDropEntryReloadedBeforeCommitTest() {
+        TransactionSynchronizationManager.initSynchronization();
+        itemCache.evict(ID);
+        assertEquals("old", itemCache.findById(ID).orElseThrow().getName());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertEquals("new", itemCache.findById(ID).orElseThrow().getName());
+        verify(itemRepository, times(2)).findById(ID);
+    }
+
+    @Test
+    void evictOutsideTransactionTest() {
+        assertEquals("old", itemCache.findById(ID).orElseThrow().getName());
+        itemCache.evict(ID);
+
+        assertEquals("new", itemCache.findById(ID).orElseThrow().getName());
+        assertEquals("new", itemCache.findById(ID).orElseThrow().getName());
+        verify(itemRepository, times(2)).findById(ID);
+    }
+}
@@ -12,7 +12,10 @@ import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.item.controller.ItemController;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CreateCommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSearchResultDto;
+import ru.practicum.shareit.item.service.ItemAvailabilityService;
 import ru.practicum.shareit.item.service.ItemService;
 
 import java.nio.charset.StandardCharsets;
@@ -23,6 +26,7 @@ import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -38,6 +42,8 @@ public class ItemControllerTest {
 
     @MockBean
     ItemService itemService;
+    @MockBean
+    ItemAvailabilityService availabilityService;
     private final ObjectMapper mapper = new ObjectMapper();
     private final MockMvc mvc;
     @InjectMocks
@@ -154,7 +160,7 @@ public class ItemControllerTest {
     public void getAllItemsTest() throws Exception {
         List<ItemDto> itemList = List.of(generateItemResponseDto(ID, generateItemInputDto()));
 
-        when(itemService.getAllItems(any(Integer.class)))
+        when(itemService.getAllItems(any(Integer.class), any(Integer.class), any(Integer.class)))
                 .thenReturn(itemList);
 
         mvc.perform(get("/items")
@@ -163,7 +169,7 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$", hasSize(1)))
                 .andExpect(jsonPath("$[0].id", is(ID), Integer.class));
 
-        verify(itemService, times(1)).getAllItems(any(Integer.class));
+        verify(itemService, times(1)).getAllItems(any(Integer.class), any(Integer.class), any(Integer.class));
     }
 
     @Test
@@ -182,8 +188,8 @@ public class ItemControllerTest {
         String searchText = "text";
         List<ItemDto> itemList = List.of(generateItemResponseDto(ID, generateItemInputDto()));
 
-        when(itemService.searchAvailableItemsByText(any(String.class)))
-                .thenReturn(itemList);
+        when(itemService.searchAvailableItemsByText(any(String.class), any(), any(), any(Integer.class), any(Integer.class)))
+                .thenReturn(ItemSearchResultDto.builder().items(itemList).build());
 
         mvc.perform(get("/items/search")
                         .param(TEXT_PARAM, searchText))
@@ -191,10 +197,56 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$", hasSize(1)))
                 .andExpect(jsonPath("$[0].id", is(ID), Integer.class));
 
-        verify(itemService, times(1)).searchAvailableItemsByText(any(String.class));
+        verify(itemService, times(1)).searchAvailableItemsByText(any(String.class), any(), any(), any(Integer.class), any(Integer.class));
+    }
+
+    @Test
+    public void searchAvailableItemsInWindowTest() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime end = start.plusDays(2);
+        List<ItemDto> itemList = List.of(generateItemResponseDto(ID, generateItemInputDto()));
+
+        when(itemService.searchAvailableItemsByText("text", start, end, 0, 20))
+                .thenReturn(ItemSearchResultDto.builder().items(itemList).partial(true).build());
+
+        mvc.perform(get("/items/search")
+                        .param(TEXT_PARAM, "text")
+                        .param("start", "2030-01-01T00:00:00")
+                        .param("end", "2030-01-03T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().string(ItemController.PARTIAL_RESULT_HEADER, "true"));
+
+        verify(itemService, times(1)).searchAvailableItemsByText("text", start, end, 0, 20);
     }
 
 
+    @Test
+    public void getAvailabilityTest() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(2);
+        ItemAvailabilityDto availability = ItemAvailabilityDto.builder()
+                .itemId(ID)
+                .from(from)
+                .to(to)
+                .busy(List.of(new ItemAvailabilityDto.Interval(from, from.plusDays(1))))
+                .free(List.of(new ItemAvailabilityDto.Interval(from.plusDays(1), to)))
+                .build();
+
+        when(availabilityService.getAvailability(ID, from, to))
+                .thenReturn(availability);
+
+        mvc.perform(get("/items/1/availability")
+                        .param("from", "2030-01-01T00:00:00")
+                        .param("to", "2030-01-03T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itemId", is(ID)))
+                .andExpect(jsonPath("$.busy", hasSize(1)))
+                .andExpect(jsonPath("$.free", hasSize(1)));
+
+        verify(availabilityService, times(1)).getAvailability(ID, from, to);
+    }
+
     private CommentDto generateResponseCommentDto(Integer id, CreateCommentDto dto) {
         return CommentDto.builder()
                 .id(id)
@@ -2,8 +2,11 @@ package ru.practicum.shareit.item;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.dto.BookingInItemDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.BookingMapper;
+import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.dto.ItemDto;
@@ -25,7 +28,7 @@ public class ItemMapperTest {
 
     private Item item;
     private ItemDto itemDto;
-    private Comment comment;
+    private CommentDto comment;
     private ItemMapper itemMapper;
 
     @BeforeEach
@@ -48,7 +51,7 @@ public class ItemMapperTest {
                 .build();
 
         User user = new User(ID, "name", "user@emali.com");
-        comment = new Comment(ID, "comment", item, user, CREATED_DATE);
+        comment = new CommentMapper().toCommentDto(new Comment(ID, "comment", item, user, CREATED_DATE));
 
         Booking booking = new Booking(ID,
                 CREATED_DATE,
@@ -56,7 +59,7 @@ public class ItemMapperTest {
                 item,
                 user,
                 BookingStatus.APPROVED);
-        itemMapper = new ItemMapper(new CommentMapper());
+        itemMapper = new ItemMapper();
     }
 
     @Test
@@ -129,7 +132,8 @@ public class ItemMapperTest {
                 new User(ID, "booker", "booker@emali.com"),
                 BookingStatus.APPROVED);
 
-        ItemDto result = itemMapper.toDto(item, booking, booking, Collections.singletonList(comment));
+        BookingInItemDto bookingDto = BookingMapper.bookingInItemDto(booking);
+        ItemDto result = itemMapper.toDto(item, bookingDto, bookingDto, Collections.singletonList(comment));
 
         assertNotNull(result);
         assertEquals(item.getId(), result.getId());
@@ -5,8 +5,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+import ru.practicum.shareit.booking.repository.ItemBookingSummaryRepository;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.repository.RequestRepository;
@@ -28,6 +29,8 @@ public class ItemRepositoryTest {
     private ItemRepository itemRepository;
     @Autowired
     private RequestRepository requestRepository;
+    @Autowired
+    private ItemBookingSummaryRepository summaryRepository;
 
     private User itemOwner;
     private Item item;
@@ -55,7 +58,7 @@ public class ItemRepositoryTest {
 
     @Test
     public void searchTest() {
-        List<Item> result = itemRepository.search("description");
+        List<Item> result = itemRepository.search("description", PageRequest.of(0, 10));
 
         assertNotNull(result);
         assertFalse(result.isEmpty());
@@ -63,14 +66,29 @@ public class ItemRepositoryTest {
     }
 
     @Test
-    public void findAllTest() {
-        Page<Item> result = itemRepository.findAll(itemOwner.getId(), Pageable.unpaged());
+    public void findAllByOwnerOrderByNextBookingTest() {
+        List<Item> result = itemRepository
+                .findAllByOwnerOrderByNextBooking(itemOwner.getId(), PageRequest.of(0, 10));
 
         assertNotNull(result);
         assertFalse(result.isEmpty());
-        assertEquals(item.getOwner(), result.getContent().get(0).getOwner());
-        assertEquals(item.getName(), result.getContent().get(0).getName());
-        assertEquals(item.getDescription(), result.getContent().get(0).getDescription());
+        assertEquals(item.getOwner(), result.get(0).getOwner());
+        assertEquals(item.getName(), result.get(0).getName());
+        assertEquals(item.getDescription(), result.get(0).getDescription());
+    }
+
+    @Test
+    public void findAllByOwnerOrderByNextBookingUsesSummaryTest() {
+        Item booked = itemRepository.save(new Item(0, "booked", "description", true, itemOwner.getId(), null));
+        summaryRepository.save(ItemBookingSummary.builder()
+                .itemId(booked.getId())
+                .nextStart(LocalDateTime.now().plusDays(1))
+                .build());
+
+        List<Item> result = itemRepository.findAllByOwnerOrderByNextBooking(itemOwner.getId(), PageRequest.of(0, 10));
+
+        assertEquals(List.of(booked.getId(), item.getId()),
+                List.of(result.get(0).getId(), result.get(1).getId()));
     }
 
     @Test
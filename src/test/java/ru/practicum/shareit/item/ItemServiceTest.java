@@ -2,31 +2,50 @@ package ru.practicum.shareit.item;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.BookingIntervalDto;
+import ru.practicum.shareit.booking.exception.InvalidBookingException;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.booking.service.BookingTimeline;
+import ru.practicum.shareit.booking.service.ItemBookingLocks;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryService;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.VersionConflictException;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CreateCommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSearchResultDto;
 import ru.practicum.shareit.item.exception.CommentException;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.DatabaseItemSearchEngine;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
 import ru.practicum.shareit.item.service.CommentMapper;
+import ru.practicum.shareit.item.service.ItemCache;
 import ru.practicum.shareit.item.service.ItemMapper;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.OffsetPageRequest;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
-import ru.practicum.shareit.user.service.UserMapper;
-import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 public class ItemServiceTest {
@@ -59,8 +78,13 @@ public class ItemServiceTest {
                 new CommentMapper(),
                 userRepository,
                 bookingRepository,
-                new ItemMapper(new CommentMapper()),
-                new UserService(userRepository, new UserMapper()));
+                new ItemMapper(),
+                new UserExistenceCache(userRepository, 100, Duration.ofMinutes(5), Duration.ofSeconds(5)),
+                new DatabaseItemSearchEngine(itemRepository),
+                new ItemCache(itemRepository, 100, Duration.ofMinutes(5)),
+                new ItemBookingSummaryService(mock(ItemBookingSummaryRepository.class), bookingRepository,
+                        new ItemBookingLocks(4)),
+                new BookingTimeline(bookingRepository, 100, Duration.ofMinutes(5)));
 
         item = new Item(
                 ID,
@@ -146,11 +170,11 @@ public class ItemServiceTest {
         itemDto.setName("updatedName");
         item.setName("updatedName");
 
-        when(commentRepository.findByItemId(any(Integer.class)))
+        when(commentRepository.findAllByItemIdIn(anyList()))
                 .thenReturn(new ArrayList<>());
 
-        when(itemRepository.save(any(Item.class)))
-                .thenReturn(item);
+        when(itemRepository.patch(ID, ID, "updatedName", "description", true, 0L))
+                .thenReturn(1);
 
         when(itemRepository.findById(any(Integer.class)))
                 .thenReturn(Optional.ofNullable(item));
@@ -160,6 +184,22 @@ public class ItemServiceTest {
         assertNotNull(result);
         assertEquals(itemDto.getId(), result.getId());
         assertEquals(itemDto.getName(), result.getName());
+        assertEquals(ID + 1, result.getRequestId());
+        assertEquals(1L, result.getVersion());
+        verify(itemRepository, times(1)).findById(ID);
+        verify(itemRepository, never()).save(any(Item.class));
+    }
+
+    @Test
+    public void updateItemShouldThrowVersionConflictExceptionWhenVersionIsStale() {
+        ItemDto patch = ItemDto.builder().name("updatedName").version(3L).build();
+
+        when(itemRepository.patch(ID, ID, "updatedName", null, null, 3L))
+                .thenReturn(0);
+        when(itemRepository.findById(ID))
+                .thenReturn(Optional.of(item));
+
+        assertThrows(VersionConflictException.class, () -> itemService.updateItem(ID, ID, patch));
     }
 
     @Test
@@ -167,7 +207,7 @@ public class ItemServiceTest {
         when(itemRepository.findById(any(Integer.class)))
                 .thenReturn(Optional.ofNullable(item));
 
-        when(commentRepository.findByItemId(any(Integer.class)))
+        when(commentRepository.findAllByItemIdIn(anyList()))
                 .thenReturn(new ArrayList<>());
 
         ItemDto result = itemService.getItemById(ID, ID);
@@ -179,26 +219,27 @@ public class ItemServiceTest {
 
     @Test
     void searchAvailableItemsByTextShouldReturnEmptyListForBlankText() {
-        List<ItemDto> result = itemService.searchAvailableItemsByText("");
+        List<ItemDto> result = itemService.searchAvailableItemsByText("", 0, 20);
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(itemRepository, never()).search(any(String.class));
+        verify(itemRepository, never()).search(any(String.class), any(Pageable.class));
     }
 
     @Test
     public void getAllItemsForOwnerTest() {
         List<Item> userItems = List.of(item);
 
-        when(itemRepository.findAll())
+        when(itemRepository
+                .findAllByOwnerOrderByNextBooking(any(Integer.class), any(Pageable.class)))
                 .thenReturn(userItems);
 
-        List<ItemDto> result = itemService.getAllItems(ID);
+        List<ItemDto> result = itemService.getAllItems(ID, 0, 20);
 
         assertNotNull(result);
         assertFalse(result.isEmpty());
         assertEquals(itemDto.getId(), result.get(0).getId());
-        verify(commentRepository, times(1)).findByItemId(any(Integer.class));
+        verify(commentRepository, times(1)).findAllByItemIdIn(anyList());
     }
 
     @Test
@@ -211,6 +252,37 @@ public class ItemServiceTest {
         verify(itemRepository, times(1)).deleteById(any(Integer.class));
     }
 
+    @Test
+    public void searchIndexShouldChangeOnlyAfterCommit() {
+        ItemSearchEngine searchEngine = mock(ItemSearchEngine.class);
+        ItemService itemService = new ItemService(
+                itemRepository,
+                commentRepository,
+                new CommentMapper(),
+                userRepository,
+                bookingRepository,
+                new ItemMapper(),
+                new UserExistenceCache(userRepository, 100, Duration.ofMinutes(5), Duration.ofSeconds(5)),
+                searchEngine,
+                new ItemCache(itemRepository, 100, Duration.ofMinutes(5)),
+                new ItemBookingSummaryService(mock(ItemBookingSummaryRepository.class), bookingRepository,
+                        new ItemBookingLocks(4)),
+                new BookingTimeline(bookingRepository, 100, Duration.ofMinutes(5)));
+        when(itemRepository.findById(ID))
+                .thenReturn(Optional.of(item));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            itemService.deleteItem(ID, ID);
+            verify(searchEngine, never()).remove(ID);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(searchEngine).remove(ID);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
     @Test
     public void getAllItemsEmptyListTest() {
         ItemRepository itemRepository = mock(ItemRepository.class);
@@ -223,17 +295,23 @@ public class ItemServiceTest {
                 new CommentMapper(),
                 userRepository,
                 bookingRepository,
-                new ItemMapper(new CommentMapper()),
-                new UserService(userRepository, new UserMapper()));
-
-        when(itemRepository.findAll())
+                new ItemMapper(),
+                new UserExistenceCache(userRepository, 100, Duration.ofMinutes(5), Duration.ofSeconds(5)),
+                new DatabaseItemSearchEngine(itemRepository),
+                new ItemCache(itemRepository, 100, Duration.ofMinutes(5)),
+                new ItemBookingSummaryService(mock(ItemBookingSummaryRepository.class), bookingRepository,
+                        new ItemBookingLocks(4)),
+                new BookingTimeline(bookingRepository, 100, Duration.ofMinutes(5)));
+
+        when(itemRepository
+                .findAllByOwnerOrderByNextBooking(any(Integer.class), any(Pageable.class)))
                 .thenReturn(Collections.emptyList());
 
-        List<ItemDto> result = itemService.getAllItems(ID);
+        List<ItemDto> result = itemService.getAllItems(ID, 0, 20);
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(commentRepository, never()).findByItemId(any(Integer.class));
+        verify(commentRepository, never()).findAllByItemIdIn(anyList());
     }
 
     @Test
@@ -248,8 +326,13 @@ public class ItemServiceTest {
                 new CommentMapper(),
                 userRepository,
                 bookingRepository,
-                new ItemMapper(new CommentMapper()),
-                new UserService(userRepository, new UserMapper()));
+                new ItemMapper(),
+                new UserExistenceCache(userRepository, 100, Duration.ofMinutes(5), Duration.ofSeconds(5)),
+                new DatabaseItemSearchEngine(itemRepository),
+                new ItemCache(itemRepository, 100, Duration.ofMinutes(5)),
+                new ItemBookingSummaryService(mock(ItemBookingSummaryRepository.class), bookingRepository,
+                        new ItemBookingLocks(4)),
+                new BookingTimeline(bookingRepository, 100, Duration.ofMinutes(5)));
 
         when(itemRepository.findById(any(Integer.class)))
                 .thenReturn(Optional.empty());
@@ -259,7 +342,7 @@ public class ItemServiceTest {
         });
 
         assertNotNull(exception);
-        verify(commentRepository, never()).findByItemId(any(Integer.class));
+        verify(commentRepository, never()).findAllByItemIdIn(anyList());
         verify(itemRepository, never()).save(any(Item.class));
     }
 
@@ -275,11 +358,16 @@ public class ItemServiceTest {
                 new CommentMapper(),
                 userRepository,
                 bookingRepository,
-                new ItemMapper(new CommentMapper()),
-                new UserService(userRepository, new UserMapper()));
+                new ItemMapper(),
+                new UserExistenceCache(userRepository, 100, Duration.ofMinutes(5), Duration.ofSeconds(5)),
+                new DatabaseItemSearchEngine(itemRepository),
+                new ItemCache(itemRepository, 100, Duration.ofMinutes(5)),
+                new ItemBookingSummaryService(mock(ItemBookingSummaryRepository.class), bookingRepository,
+                        new ItemBookingLocks(4)),
+                new BookingTimeline(bookingRepository, 100, Duration.ofMinutes(5)));
 
-        when(userRepository.findById(any(Integer.class)))
-                .thenReturn(Optional.empty());
+        when(userRepository.existsById(any(Integer.class)))
+                .thenReturn(false);
 
         NotFoundException exception = assertThrows(NotFoundException.class,
                 () -> {
@@ -307,14 +395,60 @@ public class ItemServiceTest {
     public void searchAvailableItemsByTextShouldReturnItemListForNonBlankText() {
         String searchText = "search";
         List<Item> searchResults = Collections.singletonList(item);
-        when(itemRepository.search(searchText))
+        when(itemRepository.search(eq(searchText), any(Pageable.class)))
                 .thenReturn(searchResults);
 
-        List<ItemDto> result = itemService.searchAvailableItemsByText(searchText);
+        List<ItemDto> result = itemService.searchAvailableItemsByText(searchText, 0, 1000);
 
         assertNotNull(result);
         assertFalse(result.isEmpty());
-        verify(itemRepository, times(1)).search(searchText);
+        verify(itemRepository, times(1))
+                .search(searchText, OffsetPageRequest.of(0, ItemService.MAX_SEARCH_PAGE_SIZE));
+    }
+
+    @Test
+    public void searchAvailableItemsInWindowShouldSkipBookedItems() {
+        String searchText = "search";
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Item bookedItem = new Item(ID + 1, "booked", "description", true, ID, null);
+        when(itemRepository.search(eq(searchText), any(Pageable.class)))
+                .thenReturn(List.of(item, bookedItem));
+        when(bookingRepository.findActiveIntervals(anyCollection(), anyList(), any(LocalDateTime.class)))
+                .thenReturn(List.of(new BookingIntervalDto(ID, ID + 1, start, start.plusDays(1))));
+
+        ItemSearchResultDto result = itemService.searchAvailableItemsByText(searchText, start, start.plusHours(1), 0, 20);
+
+        assertEquals(1, result.getItems().size());
+        assertEquals(ID, result.getItems().get(0).getId());
+        assertFalse(result.isPartial());
+        verify(bookingRepository, times(1))
+                .findActiveIntervals(anyCollection(), anyList(), any(LocalDateTime.class));
+    }
+
+    @Test
+    public void searchAvailableItemsInWindowShouldStopAfterBatchLimit() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<Item> batch = IntStream.rangeClosed(1, ItemService.MAX_SEARCH_PAGE_SIZE)
+                .mapToObj(id -> new Item(id, "name", "description", true, ID, null))
+                .collect(Collectors.toList());
+        when(itemRepository.search(eq("a"), any(Pageable.class)))
+                .thenReturn(batch);
+        when(bookingRepository.findActiveIntervals(anyCollection(), anyList(), any(LocalDateTime.class)))
+                .thenAnswer(invocation -> invocation.<Collection<Integer>>getArgument(0).stream()
+                        .map(id -> new BookingIntervalDto(id, id, start, start.plusDays(1)))
+                        .collect(Collectors.toList()));
+
+        ItemSearchResultDto result = itemService.searchAvailableItemsByText("a", start, start.plusHours(1), 0, 20);
+
+        assertTrue(result.getItems().isEmpty());
+        assertTrue(result.isPartial());
+        verify(itemRepository, times(ItemService.MAX_WINDOW_SEARCH_BATCHES)).search(eq("a"), any(Pageable.class));
+    }
+
+    @Test
+    public void searchAvailableItemsInWindowShouldRejectHalfOpenWindow() {
+        assertThrows(InvalidBookingException.class,
+                () -> itemService.searchAvailableItemsByText("search", LocalDateTime.now(), null, 0, 20));
     }
 
     @Test
@@ -336,14 +470,15 @@ public class ItemServiceTest {
 
     @Test
     public void getAllItemsHandlesEmptyItemList() {
-        when(itemRepository.findAll())
+        when(itemRepository
+                .findAllByOwnerOrderByNextBooking(any(Integer.class), any(Pageable.class)))
                 .thenReturn(Collections.emptyList());
 
-        List<ItemDto> result = itemService.getAllItems(ID);
+        List<ItemDto> result = itemService.getAllItems(ID, 0, 20);
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(commentRepository, never()).findByItemId(any(Integer.class));
+        verify(commentRepository, never()).findAllByItemIdIn(anyList());
     }
 
     @Test
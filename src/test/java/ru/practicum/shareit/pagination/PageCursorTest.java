@@ -0,0 +1,41 @@
+package ru.practicum.shareit.pagination;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.InvalidCursorException;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PageCursorTest {
+
+    @Test
+    void encodeDecodeTest() {
+        PageCursor cursor = PageCursor.of(LocalDateTime.of(2023, 10, 12, 10, 15, 30, 123), 42);
+
+        assertEquals(cursor, PageCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void decodeShouldThrowInvalidCursorExceptionWhenTokenIsMalformed() {
+        assertThrows(InvalidCursorException.class, () -> PageCursor.decode("not a cursor"));
+        assertThrows(InvalidCursorException.class,
+                () -> PageCursor.decode(PageCursor.of(LocalDateTime.now(), 1).encode().substring(3)));
+    }
+
+    @Test
+    void idCursorEncodeDecodeTest() {
+        assertEquals(IdCursor.of(42), IdCursor.decode(IdCursor.of(42).encode()));
+        assertThrows(InvalidCursorException.class, () -> IdCursor.decode("not a cursor"));
+    }
+
+    @Test
+    void offsetPageRequestKeepsExactOffsetTest() {
+        OffsetPageRequest pageable = OffsetPageRequest.of(7, 5);
+
+        assertEquals(7, pageable.getOffset());
+        assertEquals(12, pageable.next().getOffset());
+        assertEquals(2, pageable.previousOrFirst().getOffset());
+    }
+}
@@ -2,11 +2,9 @@ package ru.practicum.shareit.request;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.repository.ItemRepository;
-import ru.practicum.shareit.item.service.CommentMapper;
 import ru.practicum.shareit.item.service.ItemMapper;
 import ru.practicum.shareit.request.dto.PostRequestDto;
 import ru.practicum.shareit.request.dto.PostResponseRequestDto;
@@ -17,7 +15,9 @@ import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.request.service.RequestMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -49,9 +49,9 @@ public class ItemRequestServiceTest {
         userRepository = mock(UserRepository.class);
         itemRepository = mock(ItemRepository.class);
         requestRepository = mock(RequestRepository.class);
-        requestMapper = new RequestMapper(new ItemMapper(new CommentMapper()));
+        requestMapper = new RequestMapper(new ItemMapper());
         requestService = new ItemRequestService(
-                userRepository,
+                new UserExistenceCache(userRepository, 100, Duration.ofMinutes(5), Duration.ofSeconds(5)),
                 itemRepository,
                 requestRepository,
                 requestMapper);
@@ -64,8 +64,8 @@ public class ItemRequestServiceTest {
     public void createRequestTest() {
         PostRequestDto inputDto = new PostRequestDto(request.getDescription());
 
-        when(userRepository.findById(any(Integer.class)))
-                .thenReturn(Optional.ofNullable(user));
+        when(userRepository.existsById(any(Integer.class)))
+                .thenReturn(true);
 
         when(requestRepository.save(any(Request.class)))
                 .thenReturn(request);
@@ -79,8 +79,8 @@ public class ItemRequestServiceTest {
 
     @Test
     void findAllByUserIdTest() {
-        when(userRepository.findById(any(Integer.class)))
-                .thenReturn(Optional.ofNullable(user));
+        when(userRepository.existsById(any(Integer.class)))
+                .thenReturn(true);
 
         when(requestRepository
                 .findRequestByRequestorOrderByCreatedDesc(any(Integer.class)))
@@ -97,11 +97,11 @@ public class ItemRequestServiceTest {
 
     @Test
     void findAllTest() {
-        when(userRepository.findById(any(Integer.class)))
-                .thenReturn(Optional.ofNullable(user));
+        when(userRepository.existsById(any(Integer.class)))
+                .thenReturn(true);
 
         when(requestRepository.findAll(any(Integer.class), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(new ArrayList<>()));
+                .thenReturn(new ArrayList<>());
 
         when(itemRepository.findAllByRequestId(any(Integer.class)))
                 .thenReturn(new ArrayList<>());
@@ -114,8 +114,8 @@ public class ItemRequestServiceTest {
 
     @Test
     void findByIdTest() {
-        when(userRepository.findById(any(Integer.class)))
-                .thenReturn(Optional.ofNullable(user));
+        when(userRepository.existsById(any(Integer.class)))
+                .thenReturn(true);
 
         when(requestRepository.findById(any(Integer.class)))
                 .thenReturn(Optional.ofNullable(request));
@@ -135,8 +135,8 @@ public class ItemRequestServiceTest {
 
     @Test
     void findAllByUserIdShouldThrowNotFoundExceptionWhenUserNotFound() {
-        when(userRepository.findById(any(Integer.class)))
-                .thenReturn(Optional.empty());
+        when(userRepository.existsById(any(Integer.class)))
+                .thenReturn(false);
 
         NotFoundException exception = assertThrows(NotFoundException.class, () -> {
             requestService.findAllByUserId(ID);
@@ -147,8 +147,8 @@ public class ItemRequestServiceTest {
 
     @Test
     void findAllShouldThrowNotFoundExceptionWhenUserNotFound() {
-        when(userRepository.findById(any(Integer.class)))
-                .thenReturn(Optional.empty());
+        when(userRepository.existsById(any(Integer.class)))
+                .thenReturn(false);
 
         NotFoundException exception = assertThrows(NotFoundException.class, () -> {
             requestService.findAll(FROM_VALUE, SIZE_VALUE, ID);
@@ -159,8 +159,8 @@ public class ItemRequestServiceTest {
 
     @Test
     void findByIdShouldThrowNotFoundExceptionWhenUserNotFound() {
-        when(userRepository.findById(any(Integer.class)))
-                .thenReturn(Optional.empty());
+        when(userRepository.existsById(any(Integer.class)))
+                .thenReturn(false);
 
         NotFoundException exception = assertThrows(NotFoundException.class, () -> {
             requestService.findById(ID, ID);
@@ -173,8 +173,8 @@ public class ItemRequestServiceTest {
     void createRequestShouldThrowNotFoundExceptionWhenUserNotFound() {
         PostRequestDto inputDto = new PostRequestDto(request.getDescription());
 
-        when(userRepository.findById(any(Integer.class)))
-                .thenReturn(Optional.empty());
+        when(userRepository.existsById(any(Integer.class)))
+                .thenReturn(false);
 
         NotFoundException exception = assertThrows(NotFoundException.class, () -> {
             requestService.createRequest(inputDto, ID);
@@ -187,8 +187,8 @@ public class ItemRequestServiceTest {
     void createRequestShouldThrowNotFoundExceptionWhenSaveFails() {
         PostRequestDto inputDto = new PostRequestDto(request.getDescription());
 
-        when(userRepository.findById(any(Integer.class)))
-                .thenReturn(Optional.ofNullable(user));
+        when(userRepository.existsById(any(Integer.class)))
+                .thenReturn(true);
 
         when(requestRepository.save(any(Request.class)))
                 .thenThrow(new RuntimeException("Test exception"));
@@ -202,8 +202,8 @@ public class ItemRequestServiceTest {
 
     @Test
     void findAllByUserIdShouldHandleExceptionFromRepository() {
-        when(userRepository.findById(any(Integer.class)))
-                .thenReturn(Optional.ofNullable(user));
+        when(userRepository.existsById(any(Integer.class)))
+                .thenReturn(true);
 
         when(requestRepository.findRequestByRequestorOrderByCreatedDesc(any(Integer.class)))
                 .thenThrow(new RuntimeException("Test exception"));
@@ -217,8 +217,8 @@ public class ItemRequestServiceTest {
 
     @Test
     void findAllShouldHandleExceptionFromRepository() {
-        when(userRepository.findById(any(Integer.class)))
-                .thenReturn(Optional.ofNullable(user));
+        when(userRepository.existsById(any(Integer.class)))
+                .thenReturn(true);
 
         when(requestRepository.findAll(any(Integer.class), any(Pageable.class)))
                 .thenThrow(new RuntimeException("Test exception"));
@@ -232,8 +232,8 @@ public class ItemRequestServiceTest {
 
     @Test
     void findByIdShouldHandleExceptionFromRepository() {
-        when(userRepository.findById(any(Integer.class)))
-                .thenReturn(Optional.ofNullable(user));
+        when(userRepository.existsById(any(Integer.class)))
+                .thenReturn(true);
 
         when(requestRepository.findById(any(Integer.class)))
                 .thenThrow(new RuntimeException("Test exception"));
@@ -117,6 +117,19 @@ public class RequestControllerTest {
                 .findAll(any(Integer.class), any(Integer.class), any(Integer.class));
     }
 
+    @Test
+    public void findAllCapsPageSizeTest() throws Exception {
+        when(itemRequestService.findAll(any(Integer.class), any(Integer.class), any(Integer.class)))
+                .thenReturn(Collections.emptyList());
+
+        mvc.perform(get("/requests/all")
+                        .param(SIZE_PARAM, String.valueOf(Integer.MAX_VALUE))
+                        .header(USER_ID_HEADER, USER_ID_VALUE))
+                .andExpect(status().isOk());
+
+        verify(itemRequestService).findAll(0, 101, USER_ID_VALUE);
+    }
+
     @Test
     public void findByIdTest() throws Exception {
         RequestWithItemsDto dto = new RequestWithItemsDto();
@@ -3,7 +3,6 @@ package ru.practicum.shareit.request;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import ru.practicum.shareit.item.repository.ItemRepository;
-import ru.practicum.shareit.item.service.CommentMapper;
 import ru.practicum.shareit.item.service.ItemMapper;
 import ru.practicum.shareit.request.dto.PostRequestDto;
 import ru.practicum.shareit.request.dto.PostResponseRequestDto;
@@ -31,7 +30,7 @@ public class RequestMapperTest {
         itemRepository = mock(ItemRepository.class);
         request = new Request(ID, "description", ID, CREATED_DATE);
         postRequestDto = new PostRequestDto("description");
-        requestMapper = new RequestMapper(new ItemMapper(new CommentMapper()));
+        requestMapper = new RequestMapper(new ItemMapper());
     }
 
     @Test
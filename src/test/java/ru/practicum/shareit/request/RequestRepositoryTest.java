@@ -5,15 +5,18 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.pagination.OffsetPageRequest;
 import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.request.repository.RequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -31,7 +34,7 @@ public class RequestRepositoryTest {
 
     @BeforeEach
     public void beforeEach() {
-        LocalDateTime dateTime = LocalDateTime.now();
+        LocalDateTime dateTime = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
         user = userRepository.save(new User(null, "user", "user@email.com"));
         requestor = userRepository.save(new User(null, "requestor", "requestor@email.com"));
         request = itemRequestRepository.save(new Request(null, "request", requestor.getId(), dateTime));
@@ -51,13 +54,36 @@ public class RequestRepositoryTest {
 
     @Test
     public void findAllTest() {
-        Page<Request> result = itemRequestRepository.findAll(user.getId(), Pageable.unpaged());
+        List<Request> result = itemRequestRepository.findAll(user.getId(), Pageable.unpaged());
 
         assertNotNull(result);
         assertFalse(result.isEmpty());
-        assertEquals(request.getDescription(), result.getContent().get(0).getDescription());
-        assertEquals(request.getRequestor(), result.getContent().get(0).getRequestor());
-        assertEquals(request.getCreated(), result.getContent().get(0).getCreated());
+        assertEquals(request.getDescription(), result.get(0).getDescription());
+        assertEquals(request.getRequestor(), result.get(0).getRequestor());
+        assertEquals(request.getCreated(), result.get(0).getCreated());
+    }
+
+    @Test
+    public void findAllAfterTest() {
+        Request older = itemRequestRepository
+                .save(new Request(null, "older", requestor.getId(), request.getCreated().minusDays(1)));
+
+        List<Request> result = itemRequestRepository
+                .findAllAfter(user.getId(), request.getCreated(), request.getId(), PageRequest.of(0, 10));
+
+        assertEquals(1, result.size());
+        assertEquals(older.getId(), result.get(0).getId());
+    }
+
+    @Test
+    public void findAllBreaksCreatedTiesByIdTest() {
+        Request twin = itemRequestRepository
+                .save(new Request(null, "twin", requestor.getId(), request.getCreated()));
+
+        List<Request> result = itemRequestRepository.findAll(user.getId(), OffsetPageRequest.of(0, 10));
+
+        assertEquals(List.of(twin.getId(), request.getId()),
+                result.stream().map(Request::getId).collect(Collectors.toList()));
     }
 
     @AfterEach
@@ -4,19 +4,32 @@ import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exception.EmailConflictException;
+import ru.practicum.shareit.exception.VersionConflictException;
+import ru.practicum.shareit.user.dto.UserBulkResultDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserExporter;
+import ru.practicum.shareit.user.service.UserImporter;
 import ru.practicum.shareit.user.service.UserService;
 
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @Transactional
 @SpringBootTest(
@@ -25,6 +38,8 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 public class IntegrationUserServiceTest {
     private final EntityManager em;
     private final UserService service;
+    private final UserExporter exporter;
+    private final UserImporter importer;
 
     @Test
     public void saveUserTest() {
@@ -50,6 +65,102 @@ public class IntegrationUserServiceTest {
         service.deleteUser(userDto.getId());
     }
 
+    @Test
+    public void saveUserWithTakenEmailTest() {
+        service.saveUser(generateUserDto());
+
+        assertThrows(EmailConflictException.class, () -> service.saveUser(generateUserDto()));
+    }
+
+    @Test
+    public void updateUserChangesOnlyPassedFieldsAndChecksVersionTest() {
+        UserDto saved = service.saveUser(generateUserDto());
+
+        UserDto updated = service.updateUser(UserDto.builder().name("renamed").version(saved.getVersion()).build(),
+                saved.getId());
+
+        assertEquals("renamed", updated.getName());
+        assertEquals(saved.getEmail(), updated.getEmail());
+        assertEquals(saved.getVersion() + 1, updated.getVersion());
+        assertThrows(VersionConflictException.class, () -> service.updateUser(
+                UserDto.builder().name("stale").version(saved.getVersion()).build(), saved.getId()));
+        assertEquals("renamed", service.getUser(saved.getId()).getName());
+    }
+
+    @Test
+    public void exportUsersTest() throws Exception {
+        UserDto first = service.saveUser(generateUserDto());
+        UserDto second = service.saveUser(UserDto.builder().name("other").email("other@email.com").build());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.export(out);
+        List<String> lines = List.of(out.toString(StandardCharsets.UTF_8).split("\n"));
+
+        assertTrue(lines.contains(toJson(first)));
+        assertTrue(lines.contains(toJson(second)));
+        assertTrue(lines.indexOf(toJson(first)) < lines.indexOf(toJson(second)));
+    }
+
+    /**
+     * Порции импорта коммитятся в собственных транзакциях, поэтому тест идёт вне транзакции теста
+     * и сам удаляет созданных пользователей.
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void importUsersReportsConflictsPerRowTest() {
+        UserDto existing = service.saveUser(generateUserDto());
+        List<UserBulkResultDto> results = List.of();
+        try {
+            results = importer.importUsers(List.of(
+                    UserDto.builder().name("first").email("first@email.com").build(),
+                    generateUserDto(),
+                    UserDto.builder().name("copy").email("first@email.com").build(),
+                    UserDto.builder().name("bad").email("not an email").build(),
+                    UserDto.builder().name("second").email("second@email.com").build()));
+
+            assertEquals(5, results.size());
+            assertNotNull(results.get(0).getUser().getId());
+            assertNotNull(results.get(1).getError());
+            assertNotNull(results.get(2).getError());
+            assertNotNull(results.get(3).getError());
+            assertNull(results.get(4).getError());
+            assertEquals("second", service.getUser(results.get(4).getUser().getId()).getName());
+        } finally {
+            service.deleteUser(existing.getId());
+            deleteImported(results);
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void importNdjsonSkipsMalformedRowsTest() throws Exception {
+        String body = "{\"name\":\"first\",\"email\":\"first@email.com\"}\n"
+                + "\n"
+                + "{not json\n"
+                + "{\"name\":\"second\",\"email\":\"second@email.com\"}\n";
+
+        List<UserBulkResultDto> results = importer.importNdjson(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+        try {
+            assertEquals(3, results.size());
+            assertEquals("first", results.get(0).getUser().getName());
+            assertNotNull(results.get(1).getError());
+            assertEquals("second", results.get(2).getUser().getName());
+        } finally {
+            deleteImported(results);
+        }
+    }
+
+    private void deleteImported(List<UserBulkResultDto> results) {
+        results.stream()
+                .filter(result -> result.getUser() != null)
+                .forEach(result -> service.deleteUser(result.getUser().getId()));
+    }
+
+    private String toJson(UserDto dto) {
+        return String.format("{\"id\":%d,\"name\":\"%s\",\"email\":\"%s\",\"version\":%d}",
+                dto.getId(), dto.getName(), dto.getEmail(), dto.getVersion());
+    }
+
     private UserDto generateUserDto() {
         return UserDto.builder()
                 .email("user@email.com")
@@ -9,20 +9,33 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.pagination.IdCursor;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.controller.UserController;
+import ru.practicum.shareit.user.dto.UserBulkResultDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserExporter;
+import ru.practicum.shareit.user.service.UserImporter;
 import ru.practicum.shareit.user.service.UserMapper;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Collections;
+import java.util.List;
 
+import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(UserController.class)
@@ -34,6 +47,12 @@ public class UserControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private UserExporter userExporter;
+
+    @MockBean
+    private UserImporter userImporter;
+
     private final ObjectMapper mapper = new ObjectMapper();
 
     @Autowired
@@ -41,26 +60,112 @@ public class UserControllerTest {
 
     @Test
     public void findAllUsersTest() throws Exception {
-        when(userService.getAllUsers())
+        when(userService.getUsersAfter(null, 21))
                 .thenReturn(Collections.emptyList());
 
         mvc.perform(get("/users"))
                 .andExpect(status().isOk())
                 .andExpect(content().json("[]"));
 
-        verify(userService, times(1)).getAllUsers();
+        verify(userService, times(1)).getUsersAfter(null, 21);
     }
 
     @Test
     @SneakyThrows
-    void getAllUsers_whenInvoked_thenReturnedStatusOk() {
-        mvc
-                .perform(
-                        get(CONTROLLER_URL)
-                )
+    void getAllUsers_whenSizeIsTooLarge_thenSizeIsCapped() {
+        mvc.perform(get(CONTROLLER_URL).param("size", "1000"))
                 .andExpect(status().isOk());
 
-        verify(userService).getAllUsers();
+        verify(userService).getUsersAfter(null, 101);
+    }
+
+    @Test
+    @SneakyThrows
+    void getUsersPage_whenNextPageExists_thenReturnedNextCursor() {
+        List<UserDto> rows = List.of(createTestUserDto(3), createTestUserDto(4), createTestUserDto(5));
+        when(userService.getUsersAfter(IdCursor.of(2), 3)).thenReturn(rows);
+
+        mvc.perform(get(CONTROLLER_URL)
+                        .param("cursor", IdCursor.of(2).encode())
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(2)))
+                .andExpect(header().string(PageCursor.NEXT_CURSOR_HEADER, IdCursor.of(4).encode()));
+    }
+
+    @Test
+    @SneakyThrows
+    void getUsersPage_whenPageIsLast_thenNoNextCursor() {
+        when(userService.getUsersAfter(IdCursor.of(2), 3))
+                .thenReturn(List.of(createTestUserDto(3), createTestUserDto(4)));
+
+        mvc.perform(get(CONTROLLER_URL)
+                        .param("cursor", IdCursor.of(2).encode())
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(2)))
+                .andExpect(header().doesNotExist(PageCursor.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    @SneakyThrows
+    void getUsersPage_whenCursorIsMalformed_thenReturnedBadRequest() {
+        mvc.perform(get(CONTROLLER_URL).param("cursor", "not a cursor"))
+                .andExpect(status().isBadRequest());
+
+        verify(userService, never()).getUsersAfter(any(), anyInt());
+    }
+
+    @Test
+    @SneakyThrows
+    void exportUsers_whenInvoked_thenStreamedNdjson() {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(0);
+            out.write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(userExporter).export(any(OutputStream.class));
+
+        MvcResult result = mvc.perform(get(CONTROLLER_URL + "/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(UserController.NDJSON_VALUE))
+                .andExpect(content().string("{\"id\":1}\n"));
+    }
+
+    @Test
+    @SneakyThrows
+    void importUsers_whenJsonArray_thenReturnedResults() {
+        List<UserDto> users = List.of(createTestUserDto(null), createTestUserDto(null));
+        when(userImporter.importUsers(users)).thenReturn(List.of(
+                UserBulkResultDto.builder().index(0).user(createTestUserDto(1)).build(),
+                UserBulkResultDto.builder().index(1).error("conflict").build()));
+
+        mvc.perform(post(CONTROLLER_URL + "/bulk")
+                        .content(mapper.writeValueAsString(users))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"index\":0,\"user\":{\"id\":1}},{\"index\":1,\"error\":\"conflict\"}]"));
+
+        verify(userImporter, never()).importNdjson(any(InputStream.class));
+    }
+
+    @Test
+    @SneakyThrows
+    void importUsers_whenNdjson_thenReadFromStream() {
+        when(userImporter.importNdjson(any(InputStream.class))).thenReturn(Collections.emptyList());
+
+        mvc.perform(post(CONTROLLER_URL + "/bulk")
+                        .content("{\"name\":\"user\",\"email\":\"user@user.com\"}\n")
+                        .contentType(UserController.NDJSON_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[]"));
+
+        verify(userImporter).importNdjson(any(InputStream.class));
+        verify(userImporter, never()).importUsers(any());
     }
 
     @Test
@@ -33,7 +33,7 @@ public class UserMapperTest {
 
     @Test
     public void toModelTest() {
-        UserDto dto = new UserDto(1, "user1", "user1@email.com");
+        UserDto dto = UserDto.builder().id(1).name("user1").email("user1@email.com").build();
         User fromDtoUser = userMapper.toUser(dto);
 
         assertEquals(dto.getId(), fromDtoUser.getId());
@@ -2,14 +2,21 @@ package ru.practicum.shareit.user;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.exception.EmailConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.VersionConflictException;
+import ru.practicum.shareit.pagination.IdCursor;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 import ru.practicum.shareit.user.service.UserMapper;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.sql.SQLException;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -24,13 +31,15 @@ public class UserServiceTest {
     private UserService userService;
     private UserRepository userRepository;
     private UserMapper userMapper;
+    private UserExistenceCache existenceCache;
     private User user;
 
     @BeforeEach
     void beforeEach() {
         userMapper = new UserMapper();
         userRepository = mock(UserRepository.class);
-        userService = new UserService(userRepository, userMapper);
+        existenceCache = new UserExistenceCache(userRepository, 100, Duration.ofMinutes(5), Duration.ofSeconds(5));
+        userService = new UserService(userRepository, userMapper, existenceCache);
         user = new User(1, "user1", "user1@email.com");
     }
 
@@ -41,7 +50,7 @@ public class UserServiceTest {
         savedUser.setEmail(user.getEmail());
         UserDto savedDto = userMapper.toUserDTO(savedUser);
 
-        when(userRepository.save(any(User.class)))
+        when(userRepository.saveAndFlush(any(User.class)))
                 .thenReturn(user);
 
         UserDto userDto = userService.saveUser(savedDto);
@@ -51,7 +60,7 @@ public class UserServiceTest {
         assertEquals(savedUser.getName(), userDto.getName());
         assertEquals(savedUser.getEmail(), userDto.getEmail());
 
-        verify(userRepository, times(1)).save(any(User.class));
+        verify(userRepository, times(1)).saveAndFlush(any(User.class));
     }
 
     @Test
@@ -59,8 +68,8 @@ public class UserServiceTest {
         user.setName("updated name");
         UserDto inputDto = userMapper.toUserDTO(user);
 
-        when(userRepository.save(any(User.class)))
-                .thenReturn(user);
+        when(userRepository.patch(ID, "updated name", user.getEmail(), 0L))
+                .thenReturn(1);
 
         when(userRepository.findById(any(Integer.class)))
                 .thenReturn(Optional.of(user));
@@ -71,7 +80,50 @@ public class UserServiceTest {
         assertEquals(userDto.getId(), 1);
         assertEquals(userDto.getName(), inputDto.getName());
 
-        verify(userRepository, times(1)).save(any(User.class));
+        assertEquals(1L, userDto.getVersion());
+
+        verify(userRepository, times(1)).patch(ID, "updated name", user.getEmail(), 0L);
+        verify(userRepository, times(1)).findById(ID);
+        verify(userRepository, never()).saveAndFlush(any(User.class));
+    }
+
+    @Test
+    void updateUserShouldRetryWithFreshVersionWhenUserChangedConcurrently() {
+        User changed = new User(ID, "changed name", user.getEmail());
+        changed.setVersion(1);
+
+        when(userRepository.findById(ID))
+                .thenReturn(Optional.of(user), Optional.of(changed));
+        when(userRepository.patch(ID, null, "new@email.com", 0L))
+                .thenReturn(0);
+        when(userRepository.patch(ID, null, "new@email.com", 1L))
+                .thenReturn(1);
+
+        UserDto userDto = userService.updateUser(UserDto.builder().email("new@email.com").build(), ID);
+
+        assertEquals("changed name", userDto.getName());
+        assertEquals("new@email.com", userDto.getEmail());
+        assertEquals(2L, userDto.getVersion());
+    }
+
+    @Test
+    void updateUserShouldThrowVersionConflictExceptionWhenVersionIsStale() {
+        UserDto patch = UserDto.builder().name("updated name").version(3L).build();
+
+        when(userRepository.findById(ID))
+                .thenReturn(Optional.of(user));
+        when(userRepository.patch(ID, "updated name", null, 3L))
+                .thenReturn(0);
+
+        assertThrows(VersionConflictException.class, () -> userService.updateUser(patch, ID));
+    }
+
+    @Test
+    void updateUserShouldThrowNotFoundExceptionWhenPatchedUserIsMissing() {
+        UserDto patch = UserDto.builder().name("updated name").build();
+
+        assertThrows(NotFoundException.class, () -> userService.updateUser(patch, ID));
+        verify(userRepository, never()).patch(any(), any(), any(), any());
     }
 
     @Test
@@ -94,17 +146,16 @@ public class UserServiceTest {
     }
 
     @Test
-    void findAllUsersTest() {
-        when(userRepository.findAll())
+    void getUsersAfterCursorTest() {
+        when(userRepository.findByIdGreaterThanOrderById(eq(0), any(Pageable.class)))
                 .thenReturn(Collections.singletonList(user));
+        when(userRepository.findByIdGreaterThanOrderById(eq(1), any(Pageable.class)))
+                .thenReturn(Collections.emptyList());
 
-        List<UserDto> dtos = userService.getAllUsers();
-
-        assertNotNull(dtos);
-        assertEquals(1, dtos.size());
-        assertEquals(user.getId(), dtos.get(0).getId());
+        assertEquals(1, userService.getUsersAfter(null, 10).size());
+        assertTrue(userService.getUsersAfter(IdCursor.of(1), 10).isEmpty());
 
-        verify(userRepository, times(1)).findAll();
+        verify(userRepository, never()).findAll();
     }
 
     @Test
@@ -117,7 +168,7 @@ public class UserServiceTest {
 
         assertThrows(NotFoundException.class, () -> userService.updateUser(userDto, 1));
 
-        verify(userRepository, never()).save(any(User.class));
+        verify(userRepository, never()).saveAndFlush(any(User.class));
     }
 
     @Test
@@ -128,7 +179,7 @@ public class UserServiceTest {
         when(userRepository.findById(any(Integer.class)))
                 .thenReturn(Optional.of(user));
 
-        assertDoesNotThrow(() -> userService.update(userDto.getId(), userDto));
+        assertDoesNotThrow(() -> userService.updateUser(userDto, userDto.getId()));
     }
 
     @Test
@@ -137,19 +188,37 @@ public class UserServiceTest {
         userDto.setId(1);
         userDto.setEmail("existing@email.com");
 
-        User existingUser = new User(2, "existing", "existing@email.com");
-
-        when(userRepository.findById(any(Integer.class)))
+        when(userRepository.findById(userDto.getId()))
                 .thenReturn(Optional.of(user));
-
-        when(userRepository.findAll())
-                .thenReturn(Collections.singletonList(existingUser));
+        when(userRepository.patch(userDto.getId(), null, "existing@email.com", 0L))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement",
+                        new SQLException("Unique index or primary key violation: \"PUBLIC.UQ_USER_EMAIL\"")));
 
         EmailConflictException exception = assertThrows(EmailConflictException.class, () -> {
-            userService.update(userDto.getId(), userDto);
+            userService.updateUser(userDto, userDto.getId());
         });
 
         assertNotNull(exception);
+        verify(userRepository, never()).findAll();
+    }
+
+    @Test
+    void saveUserShouldThrowEmailConflictExceptionWhenEmailIsTaken() {
+        when(userRepository.saveAndFlush(any(User.class)))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement",
+                        new SQLException("duplicate key value violates unique constraint \"uq_user_email\"")));
+
+        assertThrows(EmailConflictException.class, () -> userService.saveUser(userMapper.toUserDTO(user)));
+    }
+
+    @Test
+    void saveUserShouldRethrowOtherConstraintViolations() {
+        when(userRepository.saveAndFlush(any(User.class)))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement",
+                        new SQLException("null value in column \"name\" violates not-null constraint")));
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> userService.saveUser(userMapper.toUserDTO(user)));
     }
 
     @Test
@@ -161,7 +230,7 @@ public class UserServiceTest {
         when(userRepository.findById(any(Integer.class)))
                 .thenReturn(Optional.of(user));
 
-        assertDoesNotThrow(() -> userService.update(userDto.getId(), userDto));
+        assertDoesNotThrow(() -> userService.updateUser(userDto, userDto.getId()));
     }
 
     @Test
@@ -173,7 +242,42 @@ public class UserServiceTest {
         when(userRepository.findById(any(Integer.class)))
                 .thenReturn(Optional.of(user));
 
-        assertDoesNotThrow(() -> userService.update(userDto.getId(), userDto));
+        assertDoesNotThrow(() -> userService.updateUser(userDto, userDto.getId()));
     }
 
-}
\ No newline at end of file
+    @Test
+    void existenceCheckShouldBeCachedTest() {
+        when(userRepository.existsById(ID))
+                .thenReturn(true);
+
+        assertTrue(existenceCache.exists(ID));
+        assertTrue(existenceCache.exists(ID));
+
+        verify(userRepository, times(1)).existsById(ID);
+    }
+
+    @Test
+    void savedUserShouldReplaceNegativeEntryTest() {
+        when(userRepository.saveAndFlush(any(User.class)))
+                .thenReturn(user);
+
+        assertFalse(existenceCache.exists(ID));
+        userService.saveUser(userMapper.toUserDTO(user));
+
+        assertTrue(existenceCache.exists(ID));
+        verify(userRepository, times(1)).existsById(ID);
+    }
+
+    @Test
+    void deletedUserShouldBeEvictedTest() {
+        when(userRepository.existsById(ID))
+                .thenReturn(true)
+                .thenReturn(false);
+
+        assertTrue(existenceCache.exists(ID));
+        userService.deleteUser(ID);
+
+        assertFalse(existenceCache.exists(ID));
+        verify(userRepository, times(2)).existsById(ID);
+    }
+}